@@ -0,0 +1,203 @@
+package org.psnbtech.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import org.psnbtech.BoardPanel;
+import org.psnbtech.Command;
+import org.psnbtech.FrameSnapshot;
+import org.psnbtech.GameEngine;
+import org.psnbtech.ManualTimeSource;
+import org.psnbtech.RandomController;
+import org.psnbtech.SidePanel;
+
+/**
+ * The {@code AllocationCheck} class makes sure that the game's per-frame work
+ * doesn't allocate once it has warmed up. Each path is run for a while so the
+ * JIT has a chance to compile it, then run again while the thread's allocation
+ * counter is watched. Any allocation is reported and fails the build.
+ * @author Brendan Jones
+ *
+ */
+public class AllocationCheck {
+
+	/**
+	 * The number of ticks to run before measuring.
+	 */
+	private static final int TICK_WARMUP = 500000;
+
+	/**
+	 * The number of ticks to measure.
+	 */
+	private static final int TICK_MEASURE = 100000;
+
+	/**
+	 * The number of frames to paint before measuring.
+	 */
+	private static final int PAINT_WARMUP = 20000;
+
+	/**
+	 * The number of frames to measure.
+	 */
+	private static final int PAINT_MEASURE = 2000;
+
+	/**
+	 * The thread bean used to read the allocation counter.
+	 */
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	/**
+	 * The engine that is ticked and painted.
+	 */
+	private GameEngine engine;
+
+	/**
+	 * The time source of the engine, which is moved forward one frame per tick.
+	 */
+	private ManualTimeSource time;
+
+	/**
+	 * The controller that places pieces, so that every tick locks a piece and
+	 * exercises line clears, spawning and game resets.
+	 */
+	private RandomController controller;
+
+	/**
+	 * The number of ticks that have been run.
+	 */
+	private int tickCount;
+
+	/**
+	 * The board panel being painted.
+	 */
+	private BoardPanel board;
+
+	/**
+	 * The side panel being painted.
+	 */
+	private SidePanel side;
+
+	/**
+	 * The graphics of the image that the panels are painted into.
+	 */
+	private Graphics2D graphics;
+
+	/**
+	 * Creates a new AllocationCheck.
+	 */
+	private AllocationCheck() {
+		this.time = new ManualTimeSource();
+		this.engine = new GameEngine(new SplittableRandom(1), time);
+		this.controller = new RandomController(new SplittableRandom(2));
+		this.board = new BoardPanel();
+		this.side = new SidePanel();
+		board.setSize(board.getPreferredSize());
+		side.setSize(side.getPreferredSize());
+
+		BufferedImage image = new BufferedImage(BoardPanel.PANEL_WIDTH, BoardPanel.PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		this.graphics = image.createGraphics();
+		engine.start();
+	}
+
+	/**
+	 * Runs a single logic frame, with a piece being placed and a command being
+	 * passed through the engine's queue on every call.
+	 */
+	private void tick() {
+		if(engine.isGameOver()) {
+			engine.start();
+		}
+		controller.control(engine);
+		engine.submit(Command.ROTATE_CLOCKWISE, time.nanoTime());
+		time.advance(GameEngine.NANOS_PER_FRAME);
+		engine.tick();
+
+		//Read every other snapshot, so both reading and skipping snapshots are covered.
+		if((++tickCount & 1) == 0) {
+			engine.getSnapshots().acquire();
+		}
+	}
+
+	/**
+	 * Paints a single frame of both panels, moving the piece first so that
+	 * every frame is different. The panels are painted through
+	 * {@code paintComponent}, which is what Swing calls, so everything that
+	 * runs around {@code render} is checked as well.
+	 */
+	private void paint() {
+		if(engine.isGameOver()) {
+			engine.start();
+		}
+		engine.updateGame();
+		engine.publish();
+
+		FrameSnapshot frame = engine.getSnapshots().acquire();
+		board.setFrame(frame);
+		side.setFrame(frame);
+		board.paintComponent(graphics);
+		side.paintComponent(graphics);
+	}
+
+	/**
+	 * Measures the number of bytes allocated by a number of ticks.
+	 * @param count The number of ticks.
+	 * @return The number of bytes allocated.
+	 */
+	private long measureTicks(int count) {
+		long before = allocatedBytes();
+		for(int i = 0; i < count; i++) {
+			tick();
+		}
+		return allocatedBytes() - before;
+	}
+
+	/**
+	 * Measures the number of bytes allocated by painting a number of frames.
+	 * @param count The number of frames.
+	 * @return The number of bytes allocated.
+	 */
+	private long measurePaints(int count) {
+		long before = allocatedBytes();
+		for(int i = 0; i < count; i++) {
+			paint();
+		}
+		return allocatedBytes() - before;
+	}
+
+	/**
+	 * Gets the number of bytes that the current thread has allocated.
+	 * @return The number of bytes.
+	 */
+	private static long allocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Entry-point of the check. Exits with a non-zero status if either path allocates.
+	 * @param args Unused.
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		AllocationCheck check = new AllocationCheck();
+
+		//Make sure the counter itself has warmed up before it's trusted.
+		allocatedBytes();
+		allocatedBytes();
+
+		check.measureTicks(TICK_WARMUP);
+		long tickBytes = check.measureTicks(TICK_MEASURE);
+		check.measurePaints(PAINT_WARMUP);
+		long paintBytes = check.measurePaints(PAINT_MEASURE);
+
+		System.out.println("Tick:  " + tickBytes + " bytes over " + TICK_MEASURE + " ticks");
+		System.out.println("Paint: " + paintBytes + " bytes over " + PAINT_MEASURE + " frames");
+		if(tickBytes != 0 || paintBytes != 0) {
+			System.err.println("The tick or paint path allocates in steady state.");
+			System.exit(1);
+		}
+	}
+
+}
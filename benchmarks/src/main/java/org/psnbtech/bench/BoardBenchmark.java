@@ -0,0 +1,232 @@
+package org.psnbtech.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.psnbtech.Board;
+import org.psnbtech.TileType;
+
+/**
+ * Benchmarks for collision checks, piece placement and line clearing on the
+ * {@code Board}.
+ * @author Brendan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	/**
+	 * The number of collision probes: each of the seven types, in each rotation,
+	 * in each column, at four different rows.
+	 */
+	private static final int PROBE_COUNT = 7 * 4 * Board.COL_COUNT * 4;
+
+	/**
+	 * The board state to benchmark against.
+	 */
+	@Param
+	public Fixture fixture;
+
+	/**
+	 * The board in the fixture's state. This is never modified.
+	 */
+	private Board original;
+
+	/**
+	 * The board with a four line well. This is never modified.
+	 */
+	private Board well;
+
+	/**
+	 * The board that the mutating benchmarks work on.
+	 */
+	private Board board;
+
+	/**
+	 * The types of each collision probe.
+	 */
+	private TileType[] probeTypes;
+
+	/**
+	 * The columns of each collision probe.
+	 */
+	private int[] probeCols;
+
+	/**
+	 * The rows of each collision probe.
+	 */
+	private int[] probeRows;
+
+	/**
+	 * The rotations of each collision probe.
+	 */
+	private int[] probeRotations;
+
+	/**
+	 * The columns of each collision probe, moved in from the right edge where
+	 * needed so that the piece is inside of the board. The drop benchmarks use
+	 * these, since they expect to start from a valid position.
+	 */
+	private int[] dropCols;
+
+	@Setup
+	public void setup() {
+		this.original = fixture.createBoard();
+		this.well = fixture.createWellBoard();
+		this.board = new Board(original);
+
+		/*
+		 * Probe every type and rotation in every column, a couple of rows either
+		 * side of the top of the stack. This is where a falling piece spends most
+		 * of it's collision checks, and gives a mix of hits and misses.
+		 */
+		TileType[] types = TileType.values();
+		this.probeTypes = new TileType[PROBE_COUNT];
+		this.probeCols = new int[PROBE_COUNT];
+		this.probeRows = new int[PROBE_COUNT];
+		this.probeRotations = new int[PROBE_COUNT];
+		this.dropCols = new int[PROBE_COUNT];
+		int i = 0;
+		for(TileType type : types) {
+			for(int rotation = 0; rotation < 4; rotation++) {
+				for(int col = 0; col < Board.COL_COUNT; col++) {
+					for(int offset = -2; offset < 2; offset++) {
+						probeTypes[i] = type;
+						probeCols[i] = col - type.getLeftInset(rotation);
+						probeRows[i] = fixture.getSurfaceRow() - type.getDimension() + 1 + offset;
+						probeRotations[i] = rotation;
+						dropCols[i] = Math.min(probeCols[i], Board.COL_COUNT - 1 - type.getDimension() + type.getRightInset(rotation));
+						i++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Measures a single collision check, averaged over every probe.
+	 * @return The number of valid probes.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(PROBE_COUNT)
+	public int isValidAndEmpty() {
+		int valid = 0;
+		for(int i = 0; i < probeTypes.length; i++) {
+			if(board.isValidAndEmpty(probeTypes[i], probeCols[i], probeRows[i], probeRotations[i])) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Measures finding how far a freshly spawned piece can fall, averaged over
+	 * every type, rotation and column.
+	 * @return The total distance.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(PROBE_COUNT)
+	public int dropDistance() {
+		int total = 0;
+		for(int i = 0; i < probeTypes.length; i++) {
+			TileType type = probeTypes[i];
+			total += board.getDropDistance(type, dropCols[i], type.getSpawnRow(), probeRotations[i]);
+		}
+		return total;
+	}
+
+	/**
+	 * Measures finding the landing row of a freshly spawned piece from the column
+	 * surfaces, averaged over every type, rotation and column.
+	 * @return The total landing row.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(PROBE_COUNT)
+	public int landingRow() {
+		int total = 0;
+		for(int i = 0; i < probeTypes.length; i++) {
+			TileType type = probeTypes[i];
+			total += board.getLandingRow(type, dropCols[i], type.getSpawnRow(), probeRotations[i]);
+		}
+		return total;
+	}
+
+	/**
+	 * Measures finding the same distances as {@code dropDistance} by moving the
+	 * piece down one row at a time, which is how the ghost used to be found.
+	 * @return The total distance.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(PROBE_COUNT)
+	public int dropDistanceProbing() {
+		int total = 0;
+		for(int i = 0; i < probeTypes.length; i++) {
+			TileType type = probeTypes[i];
+			int row = type.getSpawnRow();
+			while(board.isValidAndEmpty(type, dropCols[i], row + 1, probeRotations[i])) {
+				row++;
+			}
+			total += row - type.getSpawnRow();
+		}
+		return total;
+	}
+
+	/**
+	 * Measures the cost of resetting the board, which is included in the
+	 * mutating benchmarks below.
+	 * @return The board.
+	 */
+	@Benchmark
+	public Board copyFrom() {
+		board.copyFrom(original);
+		return board;
+	}
+
+	/**
+	 * Measures placing a TypeT piece on top of the stack.
+	 * @return The board.
+	 */
+	@Benchmark
+	public Board addPiece() {
+		board.copyFrom(original);
+		board.addPiece(TileType.TypeT, 3, fixture.getSurfaceRow() - 1, 0);
+		return board;
+	}
+
+	/**
+	 * Measures checking a board that has no full lines.
+	 * @return The number of lines cleared.
+	 */
+	@Benchmark
+	public int checkLinesNone() {
+		return board.checkLines();
+	}
+
+	/**
+	 * Measures dropping a TypeI piece into the well and clearing four lines.
+	 * @return The number of lines cleared.
+	 */
+	@Benchmark
+	public int checkLinesTetris() {
+		board.copyFrom(well);
+		board.addPiece(TileType.TypeI, Board.COL_COUNT - 3, Board.ROW_COUNT - 4, 1);
+		return board.checkLines();
+	}
+
+}
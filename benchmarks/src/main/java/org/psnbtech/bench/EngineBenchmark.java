@@ -0,0 +1,59 @@
+package org.psnbtech.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.psnbtech.GameEngine;
+
+/**
+ * Benchmarks for the commands that the {@code GameEngine} runs in response to
+ * player input.
+ * @author Brendan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+	/**
+	 * The board state to benchmark against.
+	 */
+	@Param
+	public Fixture fixture;
+
+	/**
+	 * The engine, with a freshly spawned piece on the fixture's board.
+	 */
+	private GameEngine engine;
+
+	@Setup
+	public void setup() {
+		this.engine = fixture.createEngine();
+	}
+
+	/**
+	 * Measures rotating the spawned piece clockwise. The piece cycles through
+	 * all four rotations over successive invocations.
+	 * @return The new rotation.
+	 */
+	@Benchmark
+	public int rotatePiece() {
+		engine.rotatePiece((engine.getPieceRotation() + 1) & 3);
+		return engine.getPieceRotation();
+	}
+
+}
@@ -0,0 +1,113 @@
+package org.psnbtech.bench;
+
+import java.util.SplittableRandom;
+
+import org.psnbtech.Board;
+import org.psnbtech.GameEngine;
+import org.psnbtech.TileType;
+
+/**
+ * The {@code Fixture} enum describes the board states that the benchmarks are
+ * run against. Each non-empty fixture is a stack of rows that each have a single
+ * hole in a random (but seeded) column, which is roughly what a board looks like
+ * after a stretch of sloppy play or incoming garbage.
+ * @author Brendan Jones
+ *
+ */
+public enum Fixture {
+
+	/**
+	 * A board with no tiles on it.
+	 */
+	EMPTY(0),
+
+	/**
+	 * A board with the bottom half filled.
+	 */
+	HALF_FULL(Board.VISIBLE_ROW_COUNT / 2),
+
+	/**
+	 * A board that is filled to within two rows of the top.
+	 */
+	NEAR_TOP_OUT(Board.VISIBLE_ROW_COUNT - 2);
+
+	/**
+	 * The seed used to place the holes.
+	 */
+	private static final long SEED = 0x7e7215L;
+
+	/**
+	 * The number of rows that are filled.
+	 */
+	private int height;
+
+	/**
+	 * Creates a new Fixture.
+	 * @param height The number of rows that are filled.
+	 */
+	private Fixture(int height) {
+		this.height = height;
+	}
+
+	/**
+	 * Gets the number of rows that are filled.
+	 * @return The height of the stack.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Gets the first row above the stack.
+	 * @return The row.
+	 */
+	public int getSurfaceRow() {
+		return Board.ROW_COUNT - height - 1;
+	}
+
+	/**
+	 * Creates a new board in this fixture's state.
+	 * @return The board.
+	 */
+	public Board createBoard() {
+		Board board = new Board();
+		SplittableRandom random = new SplittableRandom(SEED);
+		TileType[] types = TileType.values();
+		for(int row = Board.ROW_COUNT - height; row < Board.ROW_COUNT; row++) {
+			int hole = random.nextInt(Board.COL_COUNT);
+			for(int col = 0; col < Board.COL_COUNT; col++) {
+				if(col != hole) {
+					board.setTile(col, row, types[random.nextInt(types.length)]);
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Creates a new board in this fixture's state, with the bottom four rows
+	 * filled in except for the right-most column. Dropping a vertical TypeI
+	 * piece into that column clears four lines.
+	 * @return The board.
+	 */
+	public Board createWellBoard() {
+		Board board = createBoard();
+		for(int row = Board.ROW_COUNT - 4; row < Board.ROW_COUNT; row++) {
+			for(int col = 0; col < Board.COL_COUNT; col++) {
+				board.setTile(col, row, (col == Board.COL_COUNT - 1) ? null : TileType.TypeJ);
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Creates a new engine with a game in progress on this fixture's board.
+	 * @return The engine.
+	 */
+	public GameEngine createEngine() {
+		GameEngine engine = new GameEngine(new SplittableRandom(SEED));
+		engine.start(createBoard());
+		return engine;
+	}
+
+}
@@ -0,0 +1,131 @@
+package org.psnbtech.bench;
+
+import java.util.Arrays;
+
+import org.psnbtech.FrameLimiter;
+
+/**
+ * The {@code FrameJitter} class measures how evenly frames are paced by the
+ * game loop. It runs an empty loop at the game's frame rate, records how long
+ * each frame actually took, and reports how far those times strayed from the
+ * target as percentiles.
+ * <p>
+ * The old millisecond sleep loop is measured alongside the frame limiter so the
+ * two can be compared on the same machine. This isn't a JMH benchmark, since
+ * it's measuring wall clock behavior rather than throughput.
+ * @author Brendan Jones
+ *
+ */
+public class FrameJitter {
+
+	/**
+	 * The frame rate to run at.
+	 */
+	private static final int FRAME_RATE = 50;
+
+	/**
+	 * The default number of frames to measure for each loop.
+	 */
+	private static final int DEFAULT_FRAMES = 1000;
+
+	/**
+	 * The percentiles that are reported.
+	 */
+	private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9, 100.0 };
+
+	/**
+	 * Measures the old loop, which measured the frame in whole milliseconds and
+	 * slept for whatever was left.
+	 * @param frames The number of frames to measure.
+	 * @return The length of each frame, in nanoseconds.
+	 */
+	private static long[] measureSleepLoop(int frames) {
+		long frameTime = 1000L / FRAME_RATE;
+		long[] lengths = new long[frames];
+		long last = System.nanoTime();
+		for(int i = 0; i < frames; i++) {
+			long start = System.nanoTime();
+			long delta = (System.nanoTime() - start) / 1000000L;
+			if(delta < frameTime) {
+				try {
+					Thread.sleep(frameTime - delta);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			long now = System.nanoTime();
+			lengths[i] = now - last;
+			last = now;
+		}
+		return lengths;
+	}
+
+	/**
+	 * Measures a loop paced by the frame limiter.
+	 * @param frames The number of frames to measure.
+	 * @return The length of each frame, in nanoseconds.
+	 */
+	private static long[] measureLimiter(int frames) {
+		FrameLimiter limiter = new FrameLimiter(FRAME_RATE);
+		long[] lengths = new long[frames];
+		long last = System.nanoTime();
+		for(int i = 0; i < frames; i++) {
+			limiter.sync();
+			long now = System.nanoTime();
+			lengths[i] = now - last;
+			last = now;
+		}
+		return lengths;
+	}
+
+	/**
+	 * Prints the jitter and average frame rate of a set of frame lengths.
+	 * @param name The name of the loop.
+	 * @param lengths The length of each frame, in nanoseconds.
+	 */
+	private static void report(String name, long[] lengths) {
+		long target = 1000000000L / FRAME_RATE;
+		long total = 0;
+		long[] jitter = new long[lengths.length];
+		for(int i = 0; i < lengths.length; i++) {
+			total += lengths[i];
+			jitter[i] = Math.abs(lengths[i] - target);
+		}
+		Arrays.sort(jitter);
+
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%-8s %.3f fps, jitter (us):", name, lengths.length * 1e9 / total));
+		for(double percentile : PERCENTILES) {
+			int rank = (int)Math.ceil(percentile / 100.0 * jitter.length);
+			long value = jitter[Math.max(0, Math.min(jitter.length - 1, rank - 1))];
+			String label = (percentile == 100.0) ? "max" : "p" + formatPercentile(percentile);
+			builder.append(String.format(" %s %.1f", label, value / 1e3));
+		}
+		System.out.println(builder);
+	}
+
+	/**
+	 * Formats a percentile without a trailing ".0".
+	 * @param percentile The percentile.
+	 * @return The formatted percentile.
+	 */
+	private static String formatPercentile(double percentile) {
+		return (percentile == Math.rint(percentile)) ? Integer.toString((int)percentile) : Double.toString(percentile);
+	}
+
+	/**
+	 * Entry-point of the benchmark.
+	 * @param args The optional number of frames to measure for each loop.
+	 */
+	public static void main(String[] args) {
+		int frames = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+
+		//Run each loop briefly first so neither is measured cold.
+		measureSleepLoop(FRAME_RATE);
+		measureLimiter(FRAME_RATE);
+
+		report("sleep", measureSleepLoop(frames));
+		report("limiter", measureLimiter(frames));
+	}
+
+}
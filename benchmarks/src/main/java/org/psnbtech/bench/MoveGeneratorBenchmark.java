@@ -0,0 +1,82 @@
+package org.psnbtech.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.psnbtech.Board;
+import org.psnbtech.MoveGenerator;
+import org.psnbtech.TileType;
+
+/**
+ * Benchmarks for finding every placement of a piece with the {@code MoveGenerator}.
+ * @author Brendan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGeneratorBenchmark {
+
+	/**
+	 * The number of types of piece.
+	 */
+	private static final int TYPE_COUNT = 7;
+
+	/**
+	 * The board state to benchmark against.
+	 */
+	@Param
+	public Fixture fixture;
+
+	/**
+	 * The board in the fixture's state. This is never modified.
+	 */
+	private Board board;
+
+	/**
+	 * Every type of piece.
+	 */
+	private TileType[] types;
+
+	/**
+	 * The generator being measured.
+	 */
+	private MoveGenerator generator;
+
+	@Setup
+	public void setup() {
+		this.board = fixture.createBoard();
+		this.types = TileType.values();
+		this.generator = new MoveGenerator();
+	}
+
+	/**
+	 * Measures finding every placement of a freshly spawned piece, averaged over
+	 * every type.
+	 * @return The total number of placements.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TYPE_COUNT)
+	public int generate() {
+		int total = 0;
+		for(TileType type : types) {
+			total += generator.generate(board, type, type.getSpawnColumn(), type.getSpawnRow(), 0);
+		}
+		return total;
+	}
+
+}
@@ -0,0 +1,304 @@
+package org.psnbtech.bench;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.psnbtech.Board;
+import org.psnbtech.GameEngine;
+import org.psnbtech.MoveGenerator;
+import org.psnbtech.TileType;
+import org.psnbtech.Zobrist;
+
+/**
+ * The {@code MoveGeneratorCheck} class makes sure that the {@code MoveGenerator}
+ * finds exactly the placements that a player could reach. For each board and type
+ * of piece, a naive breadth first search plays every sequence of moves through a
+ * real {@code GameEngine}, so the placements it finds follow whatever rules the
+ * engine's moves, rotations and kicks actually have. The generator has to find the
+ * same placements, each of them once. Any difference is reported and fails the
+ * build.
+ * <p>
+ * Placements are compared by the tiles that they cover, so placements in two
+ * rotations that cover the same tiles count as the same placement.
+ * @author Brendan Jones
+ *
+ */
+public class MoveGeneratorCheck {
+
+	/**
+	 * The number of random boards to check, on top of the fixtures.
+	 */
+	private static final int RANDOM_BOARDS = 100;
+
+	/**
+	 * The seed used to create the random boards.
+	 */
+	private static final long SEED = 0x6e0ec4L;
+
+	/**
+	 * The number of rows at the top of a random board that are always left
+	 * empty, so that every piece can spawn.
+	 */
+	private static final int SPAWN_ROWS = 6;
+
+	/**
+	 * The moves that the search tries from each position.
+	 */
+	private enum Move {
+		LEFT,
+		RIGHT,
+		CLOCKWISE,
+		ANTICLOCKWISE,
+		DOWN
+	}
+
+	/**
+	 * The seed that makes a new engine spawn each type of piece first.
+	 */
+	private Map<TileType, Long> spawnSeeds;
+
+	/**
+	 * The generator being checked.
+	 */
+	private MoveGenerator generator;
+
+	/**
+	 * The number of placements that have been checked.
+	 */
+	private int placementCount;
+
+	/**
+	 * The number of pieces that have been checked.
+	 */
+	private int pieceCount;
+
+	/**
+	 * The number of pieces that the generator got wrong.
+	 */
+	private int failureCount;
+
+	/**
+	 * Creates a new MoveGeneratorCheck.
+	 */
+	private MoveGeneratorCheck() {
+		this.generator = new MoveGenerator();
+		this.spawnSeeds = new HashMap<TileType, Long>();
+
+		//The first piece only depends on the seed, so find one that spawns each type.
+		for(long seed = 0; spawnSeeds.size() < TileType.values().length; seed++) {
+			TileType type = createEngine(new Board(), seed).getPieceType();
+			if(!spawnSeeds.containsKey(type)) {
+				spawnSeeds.put(type, seed);
+			}
+		}
+	}
+
+	/**
+	 * Checks every type of piece on a board.
+	 * @param name The name of the board, for reporting.
+	 * @param board The board.
+	 */
+	private void checkBoard(String name, Board board) {
+		for(TileType type : TileType.values()) {
+			GameEngine engine = createEngine(board, spawnSeeds.get(type));
+			if(engine.isGameOver()) {
+				continue;
+			}
+
+			Set<Long> expected = search(board, type);
+			Set<Long> found = new HashSet<Long>();
+			int count = generator.generate(engine);
+			for(int i = 0; i < count; i++) {
+				found.add(getPlacementKey(type, generator.getCol(i), generator.getRow(i), generator.getRotation(i)));
+			}
+
+			pieceCount++;
+			placementCount += expected.size();
+			if(!found.equals(expected) || count != found.size()) {
+				failureCount++;
+				System.err.println(name + ", " + type + ": expected " + expected.size() + " placements but found "
+						+ count + " (" + found.size() + " distinct, " + countMissing(expected, found) + " missing, "
+						+ countMissing(found, expected) + " unreachable)");
+			}
+		}
+	}
+
+	/**
+	 * Finds every placement of a piece by trying every move from every position
+	 * that the piece can reach, starting from where it spawns. Each position is
+	 * reached by playing the moves that lead to it through a new engine, so only
+	 * the engine's own rules are used to move the piece.
+	 * @param board The board.
+	 * @param type The type of piece.
+	 * @return The keys of the placements.
+	 */
+	private Set<Long> search(Board board, TileType type) {
+		long seed = spawnSeeds.get(type);
+		Set<Long> placements = new HashSet<Long>();
+		Set<Long> visited = new HashSet<Long>();
+		ArrayDeque<Move[]> queue = new ArrayDeque<Move[]>();
+
+		GameEngine start = createEngine(board, seed);
+		visited.add(getPositionKey(start));
+		queue.add(new Move[0]);
+		while(!queue.isEmpty()) {
+			Move[] path = queue.poll();
+			for(Move move : Move.values()) {
+				GameEngine engine = createEngine(board, seed);
+				for(Move step : path) {
+					apply(engine, step);
+				}
+
+				//A piece that can't move down any further would be locked where it is.
+				if(move == Move.DOWN && engine.getPieceRow() == engine.getGhostRow()) {
+					placements.add(getPlacementKey(type, engine.getPieceCol(), engine.getPieceRow(), engine.getPieceRotation()));
+					continue;
+				}
+
+				apply(engine, move);
+				if(visited.add(getPositionKey(engine))) {
+					Move[] next = new Move[path.length + 1];
+					System.arraycopy(path, 0, next, 0, path.length);
+					next[path.length] = move;
+					queue.add(next);
+				}
+			}
+		}
+		return placements;
+	}
+
+	/**
+	 * Makes a move with an engine's current piece.
+	 * @param engine The engine.
+	 * @param move The move.
+	 */
+	private static void apply(GameEngine engine, Move move) {
+		switch(move) {
+		case LEFT:
+			engine.moveLeft();
+			break;
+		case RIGHT:
+			engine.moveRight();
+			break;
+		case CLOCKWISE:
+			engine.rotateClockwise();
+			break;
+		case ANTICLOCKWISE:
+			engine.rotateAnticlockwise();
+			break;
+		case DOWN:
+			engine.updateGame();
+			break;
+		}
+	}
+
+	/**
+	 * Creates a new engine with a game in progress on a board.
+	 * @param board The board, which is copied.
+	 * @param seed The seed of the engine, which decides the first piece.
+	 * @return The engine.
+	 */
+	private static GameEngine createEngine(Board board, long seed) {
+		GameEngine engine = new GameEngine(new SplittableRandom(seed));
+		engine.start(board);
+		return engine;
+	}
+
+	/**
+	 * Gets a key for the position of an engine's current piece.
+	 * @param engine The engine.
+	 * @return The key.
+	 */
+	private static long getPositionKey(GameEngine engine) {
+		return ((long)engine.getPieceRotation() << 32) | ((long)(engine.getPieceRow() + Board.ROW_COUNT) << 16)
+				| (engine.getPieceCol() + Board.COL_COUNT);
+	}
+
+	/**
+	 * Gets a key for the tiles that a placement covers, which is the same for
+	 * every rotation and position that covers the same tiles.
+	 * @param type The type of piece.
+	 * @param x The column of the piece.
+	 * @param y The row of the piece.
+	 * @param rotation The rotation of the piece.
+	 * @return The key.
+	 */
+	private static long getPlacementKey(TileType type, int x, int y, int rotation) {
+		long key = 0L;
+		for(int col = 0; col < type.getDimension(); col++) {
+			for(int row = 0; row < type.getDimension(); row++) {
+				if(type.isTile(col, row, rotation)) {
+					key ^= Zobrist.getTileKey(x + col, y + row);
+				}
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Counts the keys in one set that aren't in another.
+	 * @param keys The keys to look for.
+	 * @param in The set to look in.
+	 * @return The number of keys that are missing.
+	 */
+	private static int countMissing(Set<Long> keys, Set<Long> in) {
+		int missing = 0;
+		for(Long key : keys) {
+			if(!in.contains(key)) {
+				missing++;
+			}
+		}
+		return missing;
+	}
+
+	/**
+	 * Creates a random board. Every tile below a random height is filled in at
+	 * random, which leaves plenty of overhangs for pieces to be slid and rotated
+	 * under.
+	 * @param random The random number generator.
+	 * @return The board.
+	 */
+	private static Board createRandomBoard(SplittableRandom random) {
+		Board board = new Board();
+		TileType[] types = TileType.values();
+		int height = random.nextInt(Board.ROW_COUNT - SPAWN_ROWS + 1);
+		int density = 40 + random.nextInt(50);
+		for(int row = Board.ROW_COUNT - height; row < Board.ROW_COUNT; row++) {
+			for(int col = 0; col < Board.COL_COUNT; col++) {
+				if(random.nextInt(100) < density) {
+					board.setTile(col, row, types[random.nextInt(types.length)]);
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Entry-point of the check. Exits with a non-zero status if the generator
+	 * doesn't find exactly the placements that the engine can reach on any board.
+	 * @param args Unused.
+	 */
+	public static void main(String[] args) {
+		MoveGeneratorCheck check = new MoveGeneratorCheck();
+		for(Fixture fixture : Fixture.values()) {
+			check.checkBoard(fixture.name(), fixture.createBoard());
+			check.checkBoard(fixture.name() + " well", fixture.createWellBoard());
+		}
+		SplittableRandom random = new SplittableRandom(SEED);
+		for(int i = 0; i < RANDOM_BOARDS; i++) {
+			check.checkBoard("Random board " + i, createRandomBoard(random));
+		}
+
+		System.out.println("Placements: " + check.placementCount + " over " + check.pieceCount + " pieces, "
+				+ check.failureCount + " wrong");
+		if(check.failureCount != 0) {
+			System.err.println("The move generator doesn't find the placements that the engine can reach.");
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package org.psnbtech.bench;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.psnbtech.BoardPanel;
+import org.psnbtech.FrameSnapshot;
+import org.psnbtech.GameEngine;
+import org.psnbtech.SidePanel;
+
+/**
+ * Benchmarks for painting a full frame of the board and side panels into an
+ * offscreen image.
+ * @author Brendan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+
+	/**
+	 * The board state to benchmark against.
+	 */
+	@Param
+	public Fixture fixture;
+
+	/**
+	 * The board panel being painted.
+	 */
+	private BoardPanel board;
+
+	/**
+	 * The side panel being painted.
+	 */
+	private SidePanel side;
+
+	/**
+	 * The image that is painted into.
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The graphics of the image. Each paint works on a copy of this, the same
+	 * way that Swing hands a fresh graphics object to each component.
+	 */
+	private Graphics graphics;
+
+	@Setup
+	public void setup() {
+		GameEngine engine = fixture.createEngine();
+		engine.publish();
+		FrameSnapshot frame = engine.getSnapshots().acquire();
+		this.board = new BoardPanel();
+		this.side = new SidePanel();
+		board.setFrame(frame);
+		side.setFrame(frame);
+		board.setSize(board.getPreferredSize());
+		side.setSize(side.getPreferredSize());
+
+		this.image = new BufferedImage(BoardPanel.PANEL_WIDTH, BoardPanel.PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		this.graphics = image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	/**
+	 * Measures painting the board panel.
+	 * @return The image.
+	 */
+	@Benchmark
+	public BufferedImage paintBoard() {
+		Graphics g = graphics.create();
+		try {
+			board.paintComponent(g);
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Measures painting the side panel.
+	 * @return The image.
+	 */
+	@Benchmark
+	public BufferedImage paintSide() {
+		Graphics g = graphics.create();
+		try {
+			side.paintComponent(g);
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+}
@@ -0,0 +1,57 @@
+package org.psnbtech.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.psnbtech.TileType;
+
+/**
+ * Benchmarks for the shape queries on {@code TileType}.
+ * @author Brendan Jones
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileTypeBenchmark {
+
+	/**
+	 * The number of pieces and rotations that are queried per invocation.
+	 */
+	private static final int QUERY_COUNT = 7 * 4;
+
+	/**
+	 * Every piece type.
+	 */
+	private TileType[] types = TileType.values();
+
+	/**
+	 * Measures looking up all four insets, averaged over every type and rotation.
+	 * @return The sum of the insets.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERY_COUNT)
+	public int insets() {
+		int sum = 0;
+		for(TileType type : types) {
+			for(int rotation = 0; rotation < 4; rotation++) {
+				sum += type.getLeftInset(rotation) + type.getRightInset(rotation)
+						+ type.getTopInset(rotation) + type.getBottomInset(rotation);
+			}
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,514 @@
+package org.psnbtech;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code AutoPlayer} class plays the game by looking at every placement of
+ * the current piece, and for each of them every placement of the next piece,
+ * and playing the current piece wherever the best pair leaves the board.
+ * <p>
+ * Boards are scored with a weighted sum of the aggregate height of the columns,
+ * the number of holes, the bumpiness of the surface and the number of lines that
+ * the pair cleared. The placements of the current piece are scored in parallel on
+ * a fork-join pool, and the best one is picked in the order the placements were
+ * found, so the same game is always played the same way no matter how many
+ * threads there are.
+ * <p>
+ * When the current and next pieces are the same type, placing them in either
+ * order can leave the same board, so those boards are kept in a transposition
+ * table that every thread shares and are only evaluated once. The table holds the
+ * features of each board rather than it's score, and the same score is worked out
+ * from them whether they were just counted or found in the table, so caching never
+ * changes which move is played.
+ * <p>
+ * A single AutoPlayer must only play one game at a time.
+ * @author Brendan Jones
+ *
+ */
+public class AutoPlayer implements Controller {
+
+	/**
+	 * The number of placements of the current piece that a single task scores
+	 * before it stops splitting the work any further.
+	 */
+	private static final int PLACEMENTS_PER_TASK = 4;
+
+	/**
+	 * The number of buckets in the transposition table. A search only stores a few
+	 * hundred boards, so the table is kept small enough to stay in the cache.
+	 */
+	private static final int TABLE_BUCKETS = 1 << 12;
+
+	/**
+	 * The number of bits used by each feature of a board when they're packed
+	 * together to be stored in the transposition table.
+	 */
+	private static final int FEATURE_BITS = 16;
+
+	/**
+	 * The mask of the bits of a single packed feature.
+	 */
+	private static final long FEATURE_MASK = (1L << FEATURE_BITS) - 1;
+
+	/**
+	 * The working state for each thread that scores placements. Everything a
+	 * task needs is reused from here, so scoring a placement never allocates.
+	 */
+	private static final ThreadLocal<Workspace> WORKSPACES = new ThreadLocal<Workspace>() {
+
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace();
+		}
+
+	};
+
+	/**
+	 * The pool that placements are scored on.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * The weights used to score each board.
+	 */
+	private Weights weights;
+
+	/**
+	 * The generator used to find placements of the current piece.
+	 */
+	private MoveGenerator moves;
+
+	/**
+	 * The score of each placement of the current piece.
+	 */
+	private double[] scores;
+
+	/**
+	 * The features of boards that can be reached by placing the current and next
+	 * pieces in either order.
+	 */
+	private TranspositionTable table;
+
+	/**
+	 * Creates a new AutoPlayer that uses the default weights.
+	 * @param pool The pool to score placements on.
+	 */
+	public AutoPlayer(ForkJoinPool pool) {
+		this(pool, Weights.DEFAULT);
+	}
+
+	/**
+	 * Creates a new AutoPlayer.
+	 * @param pool The pool to score placements on.
+	 * @param weights The weights used to score each board.
+	 */
+	public AutoPlayer(ForkJoinPool pool, Weights weights) {
+		this.pool = pool;
+		this.weights = weights;
+		this.moves = new MoveGenerator();
+		this.scores = new double[0];
+		this.table = new TranspositionTable(TABLE_BUCKETS);
+	}
+
+	@Override
+	public void control(GameEngine engine) {
+		int count = moves.generate(engine);
+		if(count == 0) {
+			engine.hardDrop();
+			return;
+		}
+		if(scores.length < count) {
+			this.scores = new double[count];
+		}
+
+		//Boards from earlier searches can't come up again, so let them be replaced.
+		table.nextGeneration();
+
+		/*
+		 * When this is already running on the pool (such as when the batch runner is
+		 * playing games on it), the search is forked from the current task rather
+		 * than submitted from outside and waited on.
+		 */
+		SearchTask task = new SearchTask(engine.getBoard(), engine.getPieceType(), engine.getNextPieceType(), 0, count);
+		if(ForkJoinTask.getPool() == pool) {
+			task.invoke();
+		} else {
+			pool.invoke(task);
+		}
+
+		//Ties go to the placement found first, so the result doesn't depend on timing.
+		int best = 0;
+		for(int i = 1; i < count; i++) {
+			if(scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		engine.placePiece(moves.getCol(best), moves.getRow(best), moves.getRotation(best));
+	}
+
+	/**
+	 * Gets the weights used to score each board.
+	 * @return The weights.
+	 */
+	public Weights getWeights() {
+		return weights;
+	}
+
+	/**
+	 * Scores a placement of the current piece by the best board that any
+	 * placement of the next piece leaves behind.
+	 * @param workspace The working state of the current thread.
+	 * @param board The board before the current piece is placed.
+	 * @param type The type of the current piece.
+	 * @param x The column of the placement.
+	 * @param y The row of the placement.
+	 * @param rotation The rotation of the placement.
+	 * @param nextType The type of the next piece.
+	 * @return The score, or negative infinity if the next piece can't spawn.
+	 */
+	private double scorePlacement(Workspace workspace, Board board, TileType type, int x, int y, int rotation, TileType nextType) {
+		Board after = workspace.board;
+		after.copyFrom(board);
+		after.addPiece(type, x, y, rotation);
+		int lines = after.checkLines();
+
+		//The game is over if the next piece has nowhere to go from where it spawns.
+		MoveGenerator nextMoves = workspace.moves;
+		int count = nextMoves.generate(after, nextType, nextType.getSpawnColumn(), nextType.getSpawnRow(), 0);
+		boolean isTransposable = (type == nextType);
+		double best = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < count; i++) {
+			double score = scoreBoard(workspace, after, nextType, nextMoves.getCol(i), nextMoves.getRow(i), nextMoves.getRotation(i),
+					lines, isTransposable);
+			best = Math.max(best, score);
+		}
+		return best;
+	}
+
+	/**
+	 * Scores the board that is left after placing a piece. The piece is added to
+	 * a copy of the board's row masks rather than the board itself, since it's
+	 * the last piece that is looked at.
+	 * @param workspace The working state of the current thread.
+	 * @param board The board before the piece is placed.
+	 * @param type The type of piece.
+	 * @param x The column of the piece.
+	 * @param y The row of the piece.
+	 * @param rotation The rotation of the piece.
+	 * @param lines The number of lines cleared by the pieces placed before this one.
+	 * @param isTransposable Whether or not the board could also be reached by
+	 * placing the pieces in a different order.
+	 * @return The score.
+	 */
+	private double scoreBoard(Workspace workspace, Board board, TileType type, int x, int y, int rotation, int lines, boolean isTransposable) {
+		int[] rows = workspace.rows;
+		int[] heights = workspace.heights;
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			rows[row] = board.getRowMask(row);
+		}
+		int[] masks = type.getRowMasks(rotation, x);
+		for(int row = 0; row < masks.length; row++) {
+			if(masks[row] != 0) {
+				rows[y + row] |= masks[row];
+			}
+		}
+
+		int remaining = Board.ROW_COUNT;
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			if(rows[row] == Board.FULL_ROW) {
+				remaining--;
+			}
+		}
+		int cleared = Board.ROW_COUNT - remaining;
+
+		/*
+		 * Look the board up if it might have been reached before. The piece's tiles
+		 * are added to the board's hash a row at a time. The lines cleared depend on
+		 * the order the pieces were placed in, so they aren't part of what's stored,
+		 * and boards where this piece clears lines are left out altogether, since the
+		 * rows that moved would all have to be hashed again.
+		 */
+		boolean isCached = (isTransposable && cleared == 0);
+		long key = 0L;
+		if(isCached) {
+			key = board.getHash();
+			for(int row = 0; row < masks.length; row++) {
+				if(masks[row] != 0) {
+					key ^= Zobrist.getRowKey(y + row, masks[row]);
+				}
+			}
+			long features = table.probe(key);
+			if(features != TranspositionTable.MISS) {
+				return score(features, lines);
+			}
+		}
+
+		for(int col = 0; col < Board.COL_COUNT; col++) {
+			heights[col] = 0;
+		}
+
+		/*
+		 * Walk down the board, skipping full rows as though they had been cleared.
+		 * Every empty tile underneath a tile that's already been passed is a hole,
+		 * and a column's height is set by the first tile found in it, which is the
+		 * number of rows that are left from there down.
+		 */
+		int covered = 0;
+		int holes = 0;
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			int mask = rows[row];
+			if(mask == Board.FULL_ROW) {
+				continue;
+			}
+			holes += Integer.bitCount(covered & ~mask);
+			for(int surface = mask & ~covered; surface != 0; surface &= surface - 1) {
+				heights[Integer.numberOfTrailingZeros(surface)] = remaining;
+			}
+			covered |= mask;
+			remaining--;
+		}
+
+		int height = heights[0];
+		int bumpiness = 0;
+		for(int col = 1; col < Board.COL_COUNT; col++) {
+			height += heights[col];
+			bumpiness += Math.abs(heights[col] - heights[col - 1]);
+		}
+
+		long features = height | ((long)holes << FEATURE_BITS) | ((long)bumpiness << (FEATURE_BITS * 2));
+		if(isCached) {
+			table.store(key, features, 0);
+		}
+		return score(features, lines + cleared);
+	}
+
+	/**
+	 * Works out the score of a board from it's features.
+	 * @param features The aggregate height, holes and bumpiness of the board,
+	 * packed together from the lowest bits up.
+	 * @param lines The number of lines cleared.
+	 * @return The score.
+	 */
+	private double score(long features, int lines) {
+		int height = (int)(features & FEATURE_MASK);
+		int holes = (int)((features >>> FEATURE_BITS) & FEATURE_MASK);
+		int bumpiness = (int)((features >>> (FEATURE_BITS * 2)) & FEATURE_MASK);
+		return weights.getHeight() * height + weights.getHoles() * holes
+				+ weights.getBumpiness() * bumpiness + weights.getLines() * lines;
+	}
+
+	/**
+	 * The {@code SearchTask} class scores a range of placements of the current
+	 * piece, splitting itself in half until the range is small enough to score
+	 * on a single thread.
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		/**
+		 * The Serial Version UID.
+		 */
+		private static final long serialVersionUID = -2470631839216411950L;
+
+		/**
+		 * The board before the current piece is placed. This is only read.
+		 */
+		private Board board;
+
+		/**
+		 * The type of the current piece.
+		 */
+		private TileType type;
+
+		/**
+		 * The type of the next piece.
+		 */
+		private TileType nextType;
+
+		/**
+		 * The index of the first placement in this task.
+		 */
+		private int from;
+
+		/**
+		 * The index after the last placement in this task.
+		 */
+		private int to;
+
+		/**
+		 * Creates a new SearchTask.
+		 * @param board The board before the current piece is placed.
+		 * @param type The type of the current piece.
+		 * @param nextType The type of the next piece.
+		 * @param from The index of the first placement.
+		 * @param to The index after the last placement.
+		 */
+		private SearchTask(Board board, TileType type, TileType nextType, int from, int to) {
+			this.board = board;
+			this.type = type;
+			this.nextType = nextType;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= PLACEMENTS_PER_TASK) {
+				Workspace workspace = WORKSPACES.get();
+				for(int i = from; i < to; i++) {
+					scores[i] = scorePlacement(workspace, board, type, moves.getCol(i), moves.getRow(i), moves.getRotation(i), nextType);
+				}
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			SearchTask left = new SearchTask(board, type, nextType, from, mid);
+			SearchTask right = new SearchTask(board, type, nextType, mid, to);
+			left.fork();
+			right.compute();
+			left.join();
+		}
+
+	}
+
+	/**
+	 * The {@code Workspace} class holds the working state of one thread that
+	 * scores placements.
+	 */
+	private static class Workspace {
+
+		/**
+		 * The board with the current piece placed on it.
+		 */
+		private Board board;
+
+		/**
+		 * The generator used to find placements of the next piece.
+		 */
+		private MoveGenerator moves;
+
+		/**
+		 * The row masks of the board with the next piece placed on it.
+		 */
+		private int[] rows;
+
+		/**
+		 * The height of each column of the board with the next piece placed on it.
+		 */
+		private int[] heights;
+
+		/**
+		 * Creates a new Workspace.
+		 */
+		private Workspace() {
+			this.board = new Board();
+			this.moves = new MoveGenerator();
+			this.rows = new int[Board.ROW_COUNT];
+			this.heights = new int[Board.COL_COUNT];
+		}
+
+	}
+
+	/**
+	 * The {@code Weights} class holds how much each feature of a board counts
+	 * towards it's score. Features that make a board worse should have negative
+	 * weights.
+	 */
+	public static class Weights {
+
+		/**
+		 * Weights that play well, taken from a well known genetically tuned player.
+		 */
+		public static final Weights DEFAULT = new Weights(-0.510066, -0.35663, -0.184483, 0.760666);
+
+		/**
+		 * The weight of the sum of every column's height.
+		 */
+		private double height;
+
+		/**
+		 * The weight of the number of empty tiles with a tile somewhere above them.
+		 */
+		private double holes;
+
+		/**
+		 * The weight of the sum of the differences in height between neighboring columns.
+		 */
+		private double bumpiness;
+
+		/**
+		 * The weight of the number of lines cleared.
+		 */
+		private double lines;
+
+		/**
+		 * Creates a new Weights.
+		 * @param height The weight of the aggregate height.
+		 * @param holes The weight of the number of holes.
+		 * @param bumpiness The weight of the bumpiness.
+		 * @param lines The weight of the number of lines cleared.
+		 */
+		public Weights(double height, double holes, double bumpiness, double lines) {
+			this.height = height;
+			this.holes = holes;
+			this.bumpiness = bumpiness;
+			this.lines = lines;
+		}
+
+		/**
+		 * Reads weights from a comma separated list of the height, holes,
+		 * bumpiness and lines weights, such as {@code -0.5,-0.36,-0.18,0.76}.
+		 * @param weights The list of weights.
+		 * @return The weights.
+		 * @throws IllegalArgumentException If the list isn't four numbers.
+		 */
+		public static Weights parse(String weights) {
+			String[] values = weights.split(",");
+			if(values.length != 4) {
+				throw new IllegalArgumentException("Expected 4 weights but got " + values.length + ": " + weights);
+			}
+			return new Weights(Double.parseDouble(values[0].trim()), Double.parseDouble(values[1].trim()),
+					Double.parseDouble(values[2].trim()), Double.parseDouble(values[3].trim()));
+		}
+
+		/**
+		 * Gets the weight of the aggregate height.
+		 * @return The weight.
+		 */
+		public double getHeight() {
+			return height;
+		}
+
+		/**
+		 * Gets the weight of the number of holes.
+		 * @return The weight.
+		 */
+		public double getHoles() {
+			return holes;
+		}
+
+		/**
+		 * Gets the weight of the bumpiness.
+		 * @return The weight.
+		 */
+		public double getBumpiness() {
+			return bumpiness;
+		}
+
+		/**
+		 * Gets the weight of the number of lines cleared.
+		 * @return The weight.
+		 */
+		public double getLines() {
+			return lines;
+		}
+
+		@Override
+		public String toString() {
+			return height + "," + holes + "," + bumpiness + "," + lines;
+		}
+
+	}
+
+}
@@ -0,0 +1,331 @@
+package org.psnbtech;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code BatchRunner} class plays a large number of headless games across
+ * every available core and reports how quickly they were played and how they
+ * scored.
+ * <p>
+ * Every game is seeded from a {@code SplittableRandom} that is split along a
+ * fixed task tree, so a batch run with the same seed and game count always
+ * deals the same pieces to the same games, no matter how many threads run it.
+ * <p>
+ * Games are played by a {@code RandomController} unless the runner is given
+ * weights for an {@code AutoPlayer}, which searches for it's moves on the same
+ * pool that the games are played on.
+ * @author Brendan Jones
+ *
+ */
+public class BatchRunner {
+
+	/**
+	 * The number of games that a single task plays before it stops splitting
+	 * the work any further.
+	 */
+	private static final int GAMES_PER_TASK = 64;
+
+	/**
+	 * The default maximum number of pieces played in a single game.
+	 */
+	private static final int DEFAULT_MAX_PIECES = 100000;
+
+	/**
+	 * The pool that games are played on.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * The maximum number of pieces played in a single game. Games that reach
+	 * this are stopped and scored as-is.
+	 */
+	private int maxPieces;
+
+	/**
+	 * The weights that the autoplayer plays with, or null to play randomly.
+	 */
+	private AutoPlayer.Weights weights;
+
+	/**
+	 * Creates a new BatchRunner that plays games randomly.
+	 * @param pool The pool to play games on.
+	 * @param maxPieces The maximum number of pieces to play in a single game.
+	 */
+	public BatchRunner(ForkJoinPool pool, int maxPieces) {
+		this(pool, maxPieces, null);
+	}
+
+	/**
+	 * Creates a new BatchRunner.
+	 * @param pool The pool to play games on.
+	 * @param maxPieces The maximum number of pieces to play in a single game.
+	 * @param weights The weights that the autoplayer plays with, or null to
+	 * play randomly.
+	 */
+	public BatchRunner(ForkJoinPool pool, int maxPieces, AutoPlayer.Weights weights) {
+		this.pool = pool;
+		this.maxPieces = maxPieces;
+		this.weights = weights;
+	}
+
+	/**
+	 * Plays a batch of games.
+	 * @param games The number of games to play.
+	 * @param seed The seed that every game's random number generator is split from.
+	 * @return The results of the batch.
+	 */
+	public Result run(int games, long seed) {
+		int[] scores = new int[games];
+		long start = System.nanoTime();
+		long pieces = pool.invoke(new GameTask(scores, 0, games, new SplittableRandom(seed)));
+		long elapsed = System.nanoTime() - start;
+		return new Result(scores, pieces, elapsed);
+	}
+
+	/**
+	 * Creates the controller that will play a single game.
+	 * @param random The random number generator for the controller to use.
+	 * @return The controller.
+	 */
+	protected Controller createController(SplittableRandom random) {
+		if(weights != null) {
+			return new AutoPlayer(pool, weights);
+		}
+		return new RandomController(random);
+	}
+
+	/**
+	 * Plays a single game until it ends or reaches the piece limit.
+	 * @param random The random number generator for this game.
+	 * @param scores The array to store the final score in.
+	 * @param index The index of this game.
+	 * @return The number of pieces played.
+	 */
+	private int playGame(SplittableRandom random, int[] scores, int index) {
+		GameEngine engine = new GameEngine(random.split());
+		Controller controller = createController(random.split());
+
+		engine.start();
+		int pieces = 0;
+		while(!engine.isGameOver() && pieces < maxPieces) {
+			controller.control(engine);
+			pieces++;
+		}
+		scores[index] = engine.getScore();
+		return pieces;
+	}
+
+	/**
+	 * The {@code GameTask} class plays a range of games, splitting itself in half
+	 * until the range is small enough to play on a single thread.
+	 */
+	private class GameTask extends RecursiveTask<Long> {
+
+		/**
+		 * The Serial Version UID.
+		 */
+		private static final long serialVersionUID = 4283318461329786011L;
+
+		/**
+		 * The array that final scores are written to.
+		 */
+		private int[] scores;
+
+		/**
+		 * The index of the first game in this task.
+		 */
+		private int from;
+
+		/**
+		 * The index after the last game in this task.
+		 */
+		private int to;
+
+		/**
+		 * The random number generator that this task's games are split from.
+		 */
+		private SplittableRandom random;
+
+		/**
+		 * Creates a new GameTask.
+		 * @param scores The array that final scores are written to.
+		 * @param from The index of the first game.
+		 * @param to The index after the last game.
+		 * @param random The random number generator to split games from.
+		 */
+		private GameTask(int[] scores, int from, int to, SplittableRandom random) {
+			this.scores = scores;
+			this.from = from;
+			this.to = to;
+			this.random = random;
+		}
+
+		@Override
+		protected Long compute() {
+			if(to - from <= GAMES_PER_TASK) {
+				long pieces = 0;
+				for(int i = from; i < to; i++) {
+					pieces += playGame(random.split(), scores, i);
+				}
+				return pieces;
+			}
+
+			/*
+			 * The left half always gets the split generator and the right half keeps
+			 * this one, so the seeds depend only on the task tree and not on the order
+			 * that the pool happens to run things in.
+			 */
+			int mid = (from + to) >>> 1;
+			GameTask left = new GameTask(scores, from, mid, random.split());
+			GameTask right = new GameTask(scores, mid, to, random);
+			left.fork();
+			long pieces = right.compute();
+			return pieces + left.join();
+		}
+
+	}
+
+	/**
+	 * The {@code Result} class holds the throughput and score distribution of
+	 * a batch of games.
+	 */
+	public static class Result {
+
+		/**
+		 * The final scores of every game, in ascending order.
+		 */
+		private int[] scores;
+
+		/**
+		 * The total number of pieces played.
+		 */
+		private long pieces;
+
+		/**
+		 * The number of nanoseconds the batch took to play.
+		 */
+		private long elapsedNanos;
+
+		/**
+		 * Creates a new Result.
+		 * @param scores The final scores of every game. This array is sorted in place.
+		 * @param pieces The total number of pieces played.
+		 * @param elapsedNanos The number of nanoseconds the batch took to play.
+		 */
+		private Result(int[] scores, long pieces, long elapsedNanos) {
+			Arrays.sort(scores);
+			this.scores = scores;
+			this.pieces = pieces;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * Gets the number of games played.
+		 * @return The number of games.
+		 */
+		public int getGames() {
+			return scores.length;
+		}
+
+		/**
+		 * Gets the total number of pieces played.
+		 * @return The number of pieces.
+		 */
+		public long getPieces() {
+			return pieces;
+		}
+
+		/**
+		 * Gets the number of games played per second.
+		 * @return The games per second.
+		 */
+		public double getGamesPerSecond() {
+			return scores.length * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * Gets the number of pieces played per second.
+		 * @return The pieces per second.
+		 */
+		public double getPiecesPerSecond() {
+			return pieces * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * Gets the mean score of every game.
+		 * @return The mean score.
+		 */
+		public double getMeanScore() {
+			long total = 0;
+			for(int score : scores) {
+				total += score;
+			}
+			return scores.length == 0 ? 0.0 : (double)total / scores.length;
+		}
+
+		/**
+		 * Gets a percentile of the final scores, using the nearest-rank method.
+		 * @param percentile The percentile, from 0 to 100.
+		 * @return The score at that percentile.
+		 */
+		public int getScorePercentile(double percentile) {
+			if(scores.length == 0) {
+				return 0;
+			}
+			int rank = (int)Math.ceil(percentile / 100.0 * scores.length);
+			return scores[Math.max(0, Math.min(scores.length - 1, rank - 1))];
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d games, %d pieces in %.3f s%n"
+					+ "  %.1f games/s, %.1f pieces/s%n"
+					+ "  score: min %d, p50 %d, p90 %d, p99 %d, max %d, mean %.1f",
+					getGames(), pieces, elapsedNanos / 1e9,
+					getGamesPerSecond(), getPiecesPerSecond(),
+					getScorePercentile(0), getScorePercentile(50), getScorePercentile(90),
+					getScorePercentile(99), getScorePercentile(100), getMeanScore());
+		}
+
+	}
+
+	/**
+	 * Entry-point of the batch runner.
+	 * @param args The number of games to play, followed by the optional seed,
+	 * number of threads, maximum number of pieces per game and controller. The
+	 * controller is {@code random}, {@code ai} for the autoplayer with it's default
+	 * weights, or a comma separated list of weights for the autoplayer.
+	 */
+	public static void main(String[] args) {
+		if(args.length < 1) {
+			System.err.println("Usage: BatchRunner <games> [seed] [threads] [maxPieces] [random|ai|<weights>]");
+			System.exit(1);
+		}
+
+		int games = Integer.parseInt(args[0]);
+		long seed = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int maxPieces = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_MAX_PIECES;
+		String controller = (args.length > 4) ? args[4] : "random";
+		AutoPlayer.Weights weights = null;
+		if(controller.equals("ai")) {
+			weights = AutoPlayer.Weights.DEFAULT;
+		} else if(!controller.equals("random")) {
+			weights = AutoPlayer.Weights.parse(controller);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			BatchRunner runner = new BatchRunner(pool, maxPieces, weights);
+			System.out.println("Seed " + seed + ", " + threads + " threads, "
+					+ ((weights != null) ? "autoplayer " + weights : "random") + " controller");
+			System.out.println(runner.run(games, seed));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,406 @@
+package org.psnbtech;
+
+/**
+ * The {@code Board} class holds the state of the game grid. Occupancy is stored
+ * as a bitboard (one integer mask per row, one bit per column) so that collision
+ * and line checks can be answered with a handful of mask operations, while a
+ * parallel array of tile types is kept around purely for rendering.
+ * <p>
+ * The board also keeps a Zobrist hash of which tiles are occupied, which is
+ * updated as tiles are added and lines are cleared, so that searches can tell
+ * when they've reached a board that they've already seen.
+ * @author Brendan Jones
+ *
+ */
+public class Board {
+
+	/**
+	 * The number of columns on the board.
+	 */
+	public static final int COL_COUNT = 10;
+
+	/**
+	 * The number of visible rows on the board.
+	 */
+	public static final int VISIBLE_ROW_COUNT = 20;
+
+	/**
+	 * The number of rows that are hidden from view.
+	 */
+	public static final int HIDDEN_ROW_COUNT = 2;
+
+	/**
+	 * The total number of rows that the board contains.
+	 */
+	public static final int ROW_COUNT = VISIBLE_ROW_COUNT + HIDDEN_ROW_COUNT;
+
+	/**
+	 * The mask of a row that has every column occupied.
+	 */
+	public static final int FULL_ROW = (1 << COL_COUNT) - 1;
+
+	/**
+	 * The occupancy mask of each row.
+	 */
+	private int[] rows;
+
+	/**
+	 * The tiles that make up the board. This mirrors {@code rows} and is only
+	 * used to determine the color of each tile.
+	 */
+	private TileType[][] tiles;
+
+	/**
+	 * The row of the highest occupied tile in each column, or {@code ROW_COUNT}
+	 * for empty columns. This is kept up to date as pieces are added and lines
+	 * are cleared, so that landing rows can be found without searching.
+	 */
+	private int[] surfaces;
+
+	/**
+	 * The rows that were cleared by the last call to {@code checkLines}.
+	 */
+	private int clearedRows;
+
+	/**
+	 * The Zobrist hash of the occupied tiles.
+	 */
+	private long hash;
+
+	/**
+	 * Creates a new, empty Board.
+	 */
+	public Board() {
+		this.rows = new int[ROW_COUNT];
+		this.tiles = new TileType[ROW_COUNT][COL_COUNT];
+		this.surfaces = new int[COL_COUNT];
+		clear();
+	}
+
+	/**
+	 * Creates a new Board that is a copy of another.
+	 * @param other The board to copy.
+	 */
+	public Board(Board other) {
+		this();
+		copyFrom(other);
+	}
+
+	/**
+	 * Replaces the contents of this board with the contents of another.
+	 * @param other The board to copy.
+	 */
+	public void copyFrom(Board other) {
+		System.arraycopy(other.rows, 0, rows, 0, ROW_COUNT);
+		for(int i = 0; i < ROW_COUNT; i++) {
+			System.arraycopy(other.tiles[i], 0, tiles[i], 0, COL_COUNT);
+		}
+		System.arraycopy(other.surfaces, 0, surfaces, 0, COL_COUNT);
+		this.clearedRows = other.clearedRows;
+		this.hash = other.hash;
+	}
+
+	/**
+	 * Resets the board and clears away any tiles.
+	 */
+	public void clear() {
+		for(int i = 0; i < ROW_COUNT; i++) {
+			rows[i] = 0;
+			for(int j = 0; j < COL_COUNT; j++) {
+				tiles[i][j] = null;
+			}
+		}
+		for(int i = 0; i < COL_COUNT; i++) {
+			surfaces[i] = ROW_COUNT;
+		}
+		this.hash = 0L;
+	}
+
+	/**
+	 * Determines whether or not a piece can be placed at the coordinates.
+	 * @param type The type of piece to use.
+	 * @param x The x coordinate of the piece.
+	 * @param y The y coordinate of the piece.
+	 * @param rotation The rotation of the piece.
+	 * @return Whether or not the position is valid.
+	 */
+	public boolean isValidAndEmpty(TileType type, int x, int y, int rotation) {
+
+		//Ensure the piece is in a valid column.
+		if(x < -type.getLeftInset(rotation) || x + type.getDimension() - type.getRightInset(rotation) >= COL_COUNT) {
+			return false;
+		}
+
+		//Ensure the piece is in a valid row.
+		if(y < -type.getTopInset(rotation) || y + type.getDimension() - type.getBottomInset(rotation) >= ROW_COUNT) {
+			return false;
+		}
+
+		/*
+		 * Test each of the piece's row masks against the row it covers. Empty piece
+		 * rows are skipped, as they may lie outside of the board.
+		 */
+		int[] masks = type.getRowMasks(rotation, x);
+		for(int row = 0; row < masks.length; row++) {
+			int mask = masks[row];
+			if(mask != 0 && (rows[y + row] & mask) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculates how many rows a piece can fall from a valid position before it
+	 * lands on the floor or another tile.
+	 * <p>
+	 * Moving the piece down is only valid while every one of it's rows is clear
+	 * of the board, so the distance is the shortest of the clear runs below each
+	 * of the piece's rows. Each step of a run is a single mask test.
+	 * @param type The type of piece.
+	 * @param x The x coordinate of the piece.
+	 * @param y The y coordinate of the piece.
+	 * @param rotation The rotation of the piece.
+	 * @return The number of rows the piece can fall.
+	 */
+	public int getDropDistance(TileType type, int x, int y, int rotation) {
+		int[] masks = type.getRowMasks(rotation, x);
+		int distance = ROW_COUNT;
+		for(int row = 0; row < masks.length; row++) {
+			int mask = masks[row];
+			if(mask == 0) {
+				continue;
+			}
+
+			int run = 0;
+			for(int next = y + row + 1; run < distance && next < ROW_COUNT && (rows[next] & mask) == 0; next++) {
+				run++;
+			}
+			distance = run;
+		}
+		return distance;
+	}
+
+	/**
+	 * Finds the row that a piece will land on if it's dropped straight down from a
+	 * valid position.
+	 * <p>
+	 * While the piece is above the surface of every column it covers, nothing can
+	 * be in it's way, so it lands wherever the lowest tile in one of it's columns
+	 * first meets that column's surface. This only needs to look at each column of
+	 * the piece once. A piece that has been tucked under an overhang falls back to
+	 * {@code getDropDistance}.
+	 * @param type The type of piece.
+	 * @param x The x coordinate of the piece.
+	 * @param y The y coordinate of the piece.
+	 * @param rotation The rotation of the piece.
+	 * @return The row that the piece will land on.
+	 */
+	public int getLandingRow(TileType type, int x, int y, int rotation) {
+		int[] bottoms = type.getColumnBottoms(rotation);
+		int landing = ROW_COUNT;
+		for(int col = 0; col < bottoms.length; col++) {
+			int bottom = bottoms[col];
+			if(bottom < 0) {
+				continue;
+			}
+
+			int surface = surfaces[x + col];
+			if(y + bottom >= surface) {
+				return y + getDropDistance(type, x, y, rotation);
+			}
+			landing = Math.min(landing, surface - 1 - bottom);
+		}
+		return landing;
+	}
+
+	/**
+	 * Adds a piece to the game board. Note: Doesn't check for existing pieces,
+	 * and will overwrite them if they exist.
+	 * @param type The type of piece to place.
+	 * @param x The x coordinate of the piece.
+	 * @param y The y coordinate of the piece.
+	 * @param rotation The rotation of the piece.
+	 */
+	public void addPiece(TileType type, int x, int y, int rotation) {
+		int[] cols = type.getCellCols(rotation);
+		int[] cellRows = type.getCellRows(rotation);
+		for(int i = 0; i < cols.length; i++) {
+			int row = y + cellRows[i];
+			int col = x + cols[i];
+			if((rows[row] & (1 << col)) == 0) {
+				hash ^= Zobrist.getTileKey(col, row);
+			}
+			rows[row] |= 1 << col;
+			tiles[row][col] = type;
+			surfaces[col] = Math.min(surfaces[col], row);
+		}
+	}
+
+	/**
+	 * Checks the board to see if any lines have been cleared, and
+	 * removes them from the game.
+	 * @return The number of lines that were cleared.
+	 * @see #getClearedRows()
+	 */
+	public int checkLines() {
+		this.clearedRows = 0;
+
+		/*
+		 * Walk up the board from the bottom, copying every row that isn't full
+		 * down to the next free slot. Full rows are simply skipped over, so each
+		 * surviving row is moved at most once no matter how many lines cleared.
+		 *
+		 * The color arrays are swapped rather than copied, so the slot that a row
+		 * was moved out of ends up holding a stale array which gets wiped below.
+		 *
+		 * The tiles of a cleared row are taken out of the hash, and the tiles of a
+		 * row that moves are taken out of the hash at their old row and put back in
+		 * at their new one.
+		 */
+		int write = ROW_COUNT - 1;
+		for(int read = ROW_COUNT - 1; read >= 0; read--) {
+			int mask = rows[read];
+			if(mask == FULL_ROW) {
+				clearedRows |= 1 << read;
+				hash ^= Zobrist.getRowKey(read, mask);
+				continue;
+			}
+
+			if(write != read) {
+				if(mask != 0) {
+					hash ^= Zobrist.getRowKey(read, mask) ^ Zobrist.getRowKey(write, mask);
+				}
+				rows[write] = mask;
+				TileType[] stale = tiles[write];
+				tiles[write] = tiles[read];
+				tiles[read] = stale;
+			}
+			write--;
+		}
+
+		//Empty out the rows at the top that were vacated by the cleared lines.
+		for(int row = write; row >= 0; row--) {
+			rows[row] = 0;
+			for(int col = 0; col < COL_COUNT; col++) {
+				tiles[row][col] = null;
+			}
+		}
+
+		/*
+		 * A full row covers every column, so each column's old surface is at or above
+		 * all of the cleared rows. Whatever was above them has moved down by the number
+		 * of rows cleared, so the new surface is at least that far down and is found by
+		 * scanning from there. Unless the surface row itself cleared, the first row
+		 * checked is the answer.
+		 */
+		int cleared = Integer.bitCount(clearedRows);
+		if(cleared > 0) {
+			for(int col = 0; col < COL_COUNT; col++) {
+				int row = surfaces[col] + cleared;
+				while(row < ROW_COUNT && (rows[row] & (1 << col)) == 0) {
+					row++;
+				}
+				surfaces[col] = row;
+			}
+		}
+		return cleared;
+	}
+
+	/**
+	 * Gets the rows that were removed by the last call to {@code checkLines}.
+	 * @return A mask with bit {@code n} set if row {@code n} was cleared, using
+	 * the row indices from before the board was shifted down.
+	 */
+	public int getClearedRows() {
+		return clearedRows;
+	}
+
+	/**
+	 * Checks to see if the tile is already occupied.
+	 * @param x The x coordinate to check.
+	 * @param y The y coordinate to check.
+	 * @return Whether or not the tile is occupied.
+	 */
+	public boolean isOccupied(int x, int y) {
+		return (rows[y] & (1 << x)) != 0;
+	}
+
+	/**
+	 * Sets a tile located at the desired column and row. Unlike {@code addPiece},
+	 * this can also be used to remove a tile. Note: Doesn't check for full lines.
+	 * @param x The column.
+	 * @param y The row.
+	 * @param type The value to set the tile to, or null to empty it.
+	 */
+	public void setTile(int x, int y, TileType type) {
+		if(isOccupied(x, y) != (type != null)) {
+			hash ^= Zobrist.getTileKey(x, y);
+		}
+		if(type != null) {
+			rows[y] |= 1 << x;
+			surfaces[x] = Math.min(surfaces[x], y);
+		} else {
+			rows[y] &= ~(1 << x);
+
+			//If the surface tile was removed, the new surface is somewhere below it.
+			if(surfaces[x] == y) {
+				int row = y + 1;
+				while(row < ROW_COUNT && (rows[row] & (1 << x)) == 0) {
+					row++;
+				}
+				surfaces[x] = row;
+			}
+		}
+		tiles[y][x] = type;
+	}
+
+	/**
+	 * Gets the Zobrist hash of the occupied tiles. Boards with the same tiles
+	 * occupied have the same hash, no matter how they got that way or what color
+	 * the tiles are.
+	 * @return The hash.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Gets the occupancy mask of a row.
+	 * @param y The row.
+	 * @return The mask, with bit {@code n} set if column {@code n} is occupied.
+	 */
+	public int getRowMask(int y) {
+		return rows[y];
+	}
+
+	/**
+	 * Gets the height of a column, measured from the floor to the top of it's
+	 * highest tile. Holes underneath that tile are counted as part of the height.
+	 * @param x The column.
+	 * @return The height of the column, in rows.
+	 */
+	public int getColumnHeight(int x) {
+		return ROW_COUNT - surfaces[x];
+	}
+
+	/**
+	 * Gets the row of the highest tile in a column.
+	 * @param x The column.
+	 * @return The row, or {@code ROW_COUNT} if the column is empty.
+	 */
+	public int getSurfaceRow(int x) {
+		return surfaces[x];
+	}
+
+	/**
+	 * Gets a tile by it's column and row.
+	 * @param x The column.
+	 * @param y The row.
+	 * @return The tile.
+	 */
+	public TileType getTile(int x, int y) {
+		return tiles[y][x];
+	}
+
+}
@@ -4,12 +4,16 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 
 import javax.swing.JPanel;
 
 /**
- * The {@code BoardPanel} class is responsible for displaying the game grid and
- * handling things related to the game board.
+ * The {@code BoardPanel} class is responsible for displaying the game grid, along
+ * with the {@link GameEngine}'s current piece.
  * @author Brendan Jones
  *
  */
@@ -40,22 +44,22 @@ public class BoardPanel extends JPanel {
 	/**
 	 * The number of columns on the board.
 	 */
-	public static final int COL_COUNT = 10;
+	public static final int COL_COUNT = Board.COL_COUNT;
 		
 	/**
 	 * The number of visible rows on the board.
 	 */
-	private static final int VISIBLE_ROW_COUNT = 20;
+	private static final int VISIBLE_ROW_COUNT = Board.VISIBLE_ROW_COUNT;
 	
 	/**
 	 * The number of rows that are hidden from view.
 	 */
-	private static final int HIDDEN_ROW_COUNT = 2;
+	private static final int HIDDEN_ROW_COUNT = Board.HIDDEN_ROW_COUNT;
 	
 	/**
 	 * The total number of rows that the board contains.
 	 */
-	public static final int ROW_COUNT = VISIBLE_ROW_COUNT + HIDDEN_ROW_COUNT;
+	public static final int ROW_COUNT = Board.ROW_COUNT;
 	
 	/**
 	 * The number of pixels that a tile takes up.
@@ -98,340 +102,410 @@ public class BoardPanel extends JPanel {
 	private static final Font SMALL_FONT = new Font("Tahoma", Font.BOLD, 12);
 	
 	/**
-	 * The Tetris instance.
+	 * The message shown while the game is paused.
 	 */
-	private Tetris tetris;
+	private static final String PAUSED_MESSAGE = "PAUSED";
 	
 	/**
-	 * The tiles that make up the board.
+	 * The title shown before the first game.
 	 */
-	private TileType[][] tiles;
-		
+	private static final String NEW_GAME_TITLE = "TETRIS";
+	
+	/**
+	 * The title shown after a game has ended.
+	 */
+	private static final String GAME_OVER_TITLE = "GAME OVER";
+	
+	/**
+	 * The prompt shown before the first game.
+	 */
+	private static final String NEW_GAME_PROMPT = "Press Enter to Play";
+	
+	/**
+	 * The prompt shown after a game has ended.
+	 */
+	private static final String GAME_OVER_PROMPT = "Press Enter to Play Again";
+	
+	/**
+	 * The snapshot of the game that is being displayed.
+	 */
+	private FrameSnapshot frame;
+	
+	/**
+	 * The histogram that the time taken to paint the board is recorded into, or null.
+	 */
+	private LatencyHistogram paintTimes;
+	
+	/**
+	 * The histogram that input latencies are recorded into, or null.
+	 */
+	private LatencyHistogram inputLatencies;
+	
+	/**
+	 * Whether or not a snapshot showing new input has been set, but not painted yet.
+	 */
+	private boolean hasPendingInput;
+	
+	/**
+	 * The time that the oldest input that hasn't been painted yet was issued.
+	 */
+	private long pendingInputTime;
+	
+	/**
+	 * The time of the last input that was seen in a snapshot. The reader can be
+	 * handed the same input twice if it picks up a snapshot just as the next one
+	 * is being published, so it's only measured the first time.
+	 */
+	private long lastInputTime;
+	
+	/**
+	 * The pre-rendered tile images.
+	 */
+	private TileSprites sprites;
+	
+	/**
+	 * The pre-rendered grid and outline that are drawn over the board during a game.
+	 */
+	private BufferedImage gridLayer;
+	
+	/**
+	 * The pre-rendered pause screen.
+	 */
+	private BufferedImage pausedLayer;
+	
+	/**
+	 * The pre-rendered screen shown before the first game.
+	 */
+	private BufferedImage newGameLayer;
+	
+	/**
+	 * The pre-rendered screen shown after a game has ended.
+	 */
+	private BufferedImage gameOverLayer;
+	
 	/**
-	 * Crates a new GameBoard instance.
-	 * @param tetris The Tetris instance to use.
+	 * Crates a new GameBoard instance. Nothing is displayed until it's given a
+	 * snapshot to display.
 	 */
-	public BoardPanel(Tetris tetris) {
-		this.tetris = tetris;
-		this.tiles = new TileType[ROW_COUNT][COL_COUNT];
+	public BoardPanel() {
+		this.sprites = new TileSprites(TILE_SIZE, SHADE_WIDTH);
 		
 		setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
 		setBackground(Color.BLACK);
 	}
 	
 	/**
-	 * Resets the board and clears away any tiles.
+	 * Sets the snapshot of the game to display. This doesn't repaint anything by
+	 * itself, so it should be followed by a call to {@code repaintChanges}.
+	 * @param frame The snapshot.
 	 */
-	public void clear() {
+	public void setFrame(FrameSnapshot frame) {
+		this.frame = frame;
+		
 		/*
-		 * Loop through every tile index and set it's value
-		 * to null to clear the board.
+		 * Remember the input that the snapshot shows until it's been painted. If the
+		 * input didn't change anything, it never shows up on screen, so there's
+		 * nothing to measure.
 		 */
-		for(int i = 0; i < ROW_COUNT; i++) {
-			for(int j = 0; j < COL_COUNT; j++) {
-				tiles[i][j] = null;
+		if(frame.hasInput() && frame.getInputTime() != lastInputTime && !frame.getDirty().isEmpty()) {
+			this.lastInputTime = frame.getInputTime();
+			if(!hasPendingInput) {
+				this.hasPendingInput = true;
+				this.pendingInputTime = lastInputTime;
 			}
 		}
 	}
 	
 	/**
-	 * Determines whether or not a piece can be placed at the coordinates.
-	 * @param type THe type of piece to use.
-	 * @param x The x coordinate of the piece.
-	 * @param y The y coordinate of the piece.
-	 * @param rotation The rotation of the piece.
-	 * @return Whether or not the position is valid.
+	 * Sets the histogram that input latencies are recorded into. The latency of an
+	 * input is the time from it being issued until {@code recordInputLatency} is
+	 * called after the first frame showing it has been painted.
+	 * @param inputLatencies The histogram, or null to stop recording.
 	 */
-	public boolean isValidAndEmpty(TileType type, int x, int y, int rotation) {
-				
-		//Ensure the piece is in a valid column.
-		if(x < -type.getLeftInset(rotation) || x + type.getDimension() - type.getRightInset(rotation) >= COL_COUNT) {
-			return false;
-		}
-		
-		//Ensure the piece is in a valid row.
-		if(y < -type.getTopInset(rotation) || y + type.getDimension() - type.getBottomInset(rotation) >= ROW_COUNT) {
-			return false;
-		}
-		
-		/*
-		 * Loop through every tile in the piece and see if it conflicts with an existing tile.
-		 * 
-		 * Note: It's fine to do this even though it allows for wrapping because we've already
-		 * checked to make sure the piece is in a valid location.
-		 */
-		for(int col = 0; col < type.getDimension(); col++) {
-			for(int row = 0; row < type.getDimension(); row++) {
-				if(type.isTile(col, row, rotation) && isOccupied(x + col, y + row)) {
-					return false;
-				}
-			}
-		}
-		return true;
+	public void setInputLatencies(LatencyHistogram inputLatencies) {
+		this.inputLatencies = inputLatencies;
 	}
 	
 	/**
-	 * Adds a piece to the game board. Note: Doesn't check for existing pieces,
-	 * and will overwrite them if they exist.
-	 * @param type The type of piece to place.
-	 * @param x The x coordinate of the piece.
-	 * @param y The y coordinate of the piece.
-	 * @param rotation The rotation of the piece.
+	 * Records the latency of any input shown in the frame that has just been painted.
+	 * This is called after Swing paints the panel, and should be called by anything
+	 * else that draws the panel once the frame is on screen.
 	 */
-	public void addPiece(TileType type, int x, int y, int rotation) {
-		/*
-		 * Loop through every tile within the piece and add it
-		 * to the board only if the boolean that represents that
-		 * tile is set to true.
-		 */
-		for(int col = 0; col < type.getDimension(); col++) {
-			for(int row = 0; row < type.getDimension(); row++) {
-				if(type.isTile(col, row, rotation)) {
-					setTile(col + x, row + y, type);
-				}
+	public void recordInputLatency() {
+		if(hasPendingInput) {
+			this.hasPendingInput = false;
+			if(inputLatencies != null) {
+				inputLatencies.record(System.nanoTime() - pendingInputTime);
 			}
 		}
 	}
 	
 	/**
-	 * Checks the board to see if any lines have been cleared, and
-	 * removes them from the game.
-	 * @return The number of lines that were cleared.
+	 * Sets the histogram that the time taken by Swing to paint the board is recorded
+	 * into. Frames drawn with {@code render} aren't recorded.
+	 * @param paintTimes The histogram, or null to stop recording.
 	 */
-	public int checkLines() {
-		int completedLines = 0;
-		
-		/*
-		 * Here we loop through every line and check it to see if
-		 * it's been cleared or not. If it has, we increment the
-		 * number of completed lines and check the next row.
-		 * 
-		 * The checkLine function handles clearing the line and
-		 * shifting the rest of the board down for us.
-		 */
-		for(int row = 0; row < ROW_COUNT; row++) {
-			if(checkLine(row)) {
-				completedLines++;
-			}
-		}
-		return completedLines;
+	public void setPaintTimes(LatencyHistogram paintTimes) {
+		this.paintTimes = paintTimes;
 	}
-			
+	
 	/**
-	 * Checks whether or not {@code row} is full.
-	 * @param line The row to check.
-	 * @return Whether or not this row is full.
+	 * Repaints the parts of the board that have changed. Runs of rows that have
+	 * changed in the same columns are merged into a single rectangle.
+	 * @param dirty The changed parts of the game.
 	 */
-	private boolean checkLine(int line) {
-		/*
-		 * Iterate through every column in this row. If any of them are
-		 * empty, then the row is not full.
-		 */
-		for(int col = 0; col < COL_COUNT; col++) {
-			if(!isOccupied(col, line)) {
-				return false;
+	public void repaintChanges(DirtyRegion dirty) {
+		if(dirty.isAll()) {
+			repaint();
+			return;
+		}
+		
+		for(int row = HIDDEN_ROW_COUNT; row < ROW_COUNT; row++) {
+			int cols = dirty.getColumns(row);
+			if(cols == 0) {
+				continue;
+			}
+		
+			int end = row;
+			while(end + 1 < ROW_COUNT && dirty.getColumns(end + 1) == cols) {
+				end++;
 			}
+		
+			int first = Integer.numberOfTrailingZeros(cols);
+			int last = 31 - Integer.numberOfLeadingZeros(cols);
+			repaint(BORDER_WIDTH + first * TILE_SIZE, BORDER_WIDTH + (row - HIDDEN_ROW_COUNT) * TILE_SIZE,
+					(last - first + 1) * TILE_SIZE, (end - row + 1) * TILE_SIZE);
+			row = end;
+		}
+	}
+	
+	@Override
+	public void paintComponent(Graphics g) {
+		PaintEvent event = null;
+		if(PaintEvent.isRecording()) {
+			event = new PaintEvent();
+			event.begin();
 		}
+		long start = System.nanoTime();
 		
 		/*
-		 * Since the line is filled, we need to 'remove' it from the game.
-		 * To do this, we simply shift every row above it down by one.
+		 * The background is filled in by render, so the panel isn't cleared first.
+		 * JComponent's paintComponent creates a new graphics object to do that on
+		 * every paint.
 		 */
-		for(int row = line - 1; row >= 0; row--) {
-			for(int col = 0; col < COL_COUNT; col++) {
-				setTile(col, row + 1, getTile(col, row));
+		render(g);
+		if(paintTimes != null) {
+			paintTimes.record(System.nanoTime() - start);
+		}
+		recordInputLatency();
+		
+		//Only look up the area that was painted if the event is being recorded.
+		if(event != null) {
+			event.end();
+			if(event.shouldCommit()) {
+				Rectangle clip = g.getClipBounds();
+				event.panel = "Board";
+				if(clip != null) {
+					event.x = clip.x;
+					event.y = clip.y;
+					event.width = clip.width;
+					event.height = clip.height;
+				}
+				event.commit();
 			}
 		}
-		return true;
 	}
 	
-	
 	/**
-	 * Checks to see if the tile is already occupied.
-	 * @param x The x coordinate to check.
-	 * @param y The y coordinate to check.
-	 * @return Whether or not the tile is occupied.
+	 * Draws the whole board, including it's background, onto a graphics object.
+	 * This is used both when Swing paints the panel and when the game is drawing
+	 * the frame itself. The graphics object is left as it was found, except for
+	 * it's color, so the same one can be reused for every frame.
+	 * @param g The graphics object.
 	 */
-	private boolean isOccupied(int x, int y) {
-		return tiles[y][x] != null;
+	public void render(Graphics g) {
+		render(g, 1.0f);
 	}
 	
 	/**
-	 * Sets a tile located at the desired column and row.
-	 * @param x The column.
-	 * @param y The row.
-	 * @param type The value to set to the tile to.
+	 * Draws the whole board, including it's background, onto a graphics object,
+	 * with the current piece part of the way between the row it fell from and the
+	 * row it's on now. This lets the board be drawn more often
+	 * than the game ticks without the piece jumping a whole row at a time.
+	 * @param g The graphics object.
+	 * @param alpha How far through the current tick we are, from 0 to 1.
 	 */
-	private void setTile(int  x, int y, TileType type) {
-		tiles[y][x] = type;
-	}
+	public void render(Graphics g, float alpha) {
+		validateLayers();
+		g.setColor(getBackground());
+		g.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
 		
-	/**
-	 * Gets a tile by it's column and row.
-	 * @param x The column.
-	 * @param y The row.
-	 * @return The tile.
-	 */
-	private TileType getTile(int x, int y) {
-		return tiles[y][x];
-	}
-	
-	@Override
-	public void paintComponent(Graphics g) {
-		super.paintComponent(g);
+		//Nothing can be drawn until there's a snapshot to draw.
+		if(frame == null) {
+			return;
+		}
+		
+		/*
+		 * The pause and menu screens never change, so they're drawn straight from
+		 * their layers.
+		 */
+		if(frame.isPaused()) {
+			g.drawImage(pausedLayer, 0, 0, null);
+			return;
+		} else if(frame.isNewGame()) {
+			g.drawImage(newGameLayer, 0, 0, null);
+			return;
+		} else if(frame.isGameOver()) {
+			g.drawImage(gameOverLayer, 0, 0, null);
+			return;
+		}
 		
 		//This helps simplify the positioning of things.
 		g.translate(BORDER_WIDTH, BORDER_WIDTH);
 		
+		Board board = frame.getBoard();
+		
 		/*
-		 * Draw the board differently depending on the current game state.
+		 * Draw the tiles onto the board.
 		 */
-		if(tetris.isPaused()) {
-			g.setFont(LARGE_FONT);
-			g.setColor(Color.WHITE);
-			String msg = "PAUSED";
-			g.drawString(msg, CENTER_X - g.getFontMetrics().stringWidth(msg) / 2, CENTER_Y);
-		} else if(tetris.isNewGame() || tetris.isGameOver()) {
-			g.setFont(LARGE_FONT);
-			g.setColor(Color.WHITE);
-			
-			/*
-			 * Because both the game over and new game screens are nearly identical,
-			 * we can handle them together and just use a ternary operator to change
-			 * the messages that are displayed.
-			 */
-			String msg = tetris.isNewGame() ? "TETRIS" : "GAME OVER";
-			g.drawString(msg, CENTER_X - g.getFontMetrics().stringWidth(msg) / 2, 150);
-			g.setFont(SMALL_FONT);
-			msg = "Press Enter to Play" + (tetris.isNewGame() ? "" : " Again");
-			g.drawString(msg, CENTER_X - g.getFontMetrics().stringWidth(msg) / 2, 300);
-		} else {
-			
-			/*
-			 * Draw the tiles onto the board.
-			 */
-			for(int x = 0; x < COL_COUNT; x++) {
-				for(int y = HIDDEN_ROW_COUNT; y < ROW_COUNT; y++) {
-					TileType tile = getTile(x, y);
-					if(tile != null) {
-						drawTile(tile, x * TILE_SIZE, (y - HIDDEN_ROW_COUNT) * TILE_SIZE, g);
-					}
+		for(int x = 0; x < COL_COUNT; x++) {
+			for(int y = HIDDEN_ROW_COUNT; y < ROW_COUNT; y++) {
+				TileType tile = board.getTile(x, y);
+				if(tile != null) {
+					sprites.drawTile(tile, x * TILE_SIZE, (y - HIDDEN_ROW_COUNT) * TILE_SIZE, g);
 				}
 			}
-			
-			/*
-			 * Draw the current piece. This cannot be drawn like the rest of the
-			 * pieces because it's still not part of the game board. If it were
-			 * part of the board, it would need to be removed every frame which
-			 * would just be slow and confusing.
-			 */
-			TileType type = tetris.getPieceType();
-			int pieceCol = tetris.getPieceCol();
-			int pieceRow = tetris.getPieceRow();
-			int rotation = tetris.getPieceRotation();
-			
-			//Draw the piece onto the board.
-			for(int col = 0; col < type.getDimension(); col++) {
-				for(int row = 0; row < type.getDimension(); row++) {
-					if(pieceRow + row >= 2 && type.isTile(col, row, rotation)) {
-						drawTile(type, (pieceCol + col) * TILE_SIZE, (pieceRow + row - HIDDEN_ROW_COUNT) * TILE_SIZE, g);
-					}
+		}
+		
+		/*
+		 * Draw the current piece. This cannot be drawn like the rest of the
+		 * pieces because it's still not part of the game board. If it were
+		 * part of the board, it would need to be removed every frame which
+		 * would just be slow and confusing.
+		 */
+		TileType type = frame.getPieceType();
+		int pieceCol = frame.getPieceCol();
+		int pieceRow = frame.getPieceRow();
+		int rotation = frame.getPieceRotation();
+		
+		/*
+		 * Work out how far above it's row the piece should be drawn. Tiles that would
+		 * poke up into the hidden rows aren't drawn, just as they aren't without
+		 * smoothing.
+		 */
+		int fallOffset = Math.round((pieceRow - frame.getFallStartRow()) * (1.0f - alpha) * TILE_SIZE);
+		int pieceY = (pieceRow - HIDDEN_ROW_COUNT) * TILE_SIZE - fallOffset;
+		
+		//Draw the piece onto the board.
+		for(int col = 0; col < type.getDimension(); col++) {
+			for(int row = 0; row < type.getDimension(); row++) {
+				int y = pieceY + row * TILE_SIZE;
+				if(y >= 0 && type.isTile(col, row, rotation)) {
+					sprites.drawTile(type, (pieceCol + col) * TILE_SIZE, y, g);
 				}
 			}
-			
-			/*
-			 * Draw the ghost (semi-transparent piece that shows where the current piece will land). I couldn't think of
-			 * a better way to implement this so it'll have to do for now. We simply take the current position and move
-			 * down until we hit a row that would cause a collision.
-			 */
-			Color base = type.getBaseColor();
-			base = new Color(base.getRed(), base.getGreen(), base.getBlue(), 20);
-			for(int lowest = pieceRow; lowest < ROW_COUNT; lowest++) {
-				//If no collision is detected, try the next row.
-				if(isValidAndEmpty(type, pieceCol, lowest, rotation)) {					
-					continue;
-				}
-				
-				//Draw the ghost one row higher than the one the collision took place at.
-				lowest--;
-				
-				//Draw the ghost piece.
-				for(int col = 0; col < type.getDimension(); col++) {
-					for(int row = 0; row < type.getDimension(); row++) {
-						if(lowest + row >= 2 && type.isTile(col, row, rotation)) {
-							drawTile(base, base.brighter(), base.darker(), (pieceCol + col) * TILE_SIZE, (lowest + row - HIDDEN_ROW_COUNT) * TILE_SIZE, g);
-						}
-					}
+		}
+		
+		/*
+		 * Draw the ghost (semi-transparent piece that shows where the current piece will land).
+		 * The engine keeps track of the row it will land on whenever the piece moves.
+		 */
+		int ghostRow = frame.getGhostRow();
+		for(int col = 0; col < type.getDimension(); col++) {
+			for(int row = 0; row < type.getDimension(); row++) {
+				if(ghostRow + row >= 2 && type.isTile(col, row, rotation)) {
+					sprites.drawGhost(type, (pieceCol + col) * TILE_SIZE, (ghostRow + row - HIDDEN_ROW_COUNT) * TILE_SIZE, g);
 				}
-				
-				break;
 			}
-			
+		}
+		
+		/*
+		 * Draw the background grid and the outline above the pieces (serves as a useful
+		 * visual for players, and makes the pieces look nicer by breaking them up.
+		 */
+		g.drawImage(gridLayer, -BORDER_WIDTH, -BORDER_WIDTH, null);
+		g.translate(-BORDER_WIDTH, -BORDER_WIDTH);
+	}
+	
+	/**
+	 * Renders the grid layer and the pause and menu screens if they haven't been
+	 * rendered yet, or if the size of the panel has changed since they were.
+	 */
+	private void validateLayers() {
+		int width = Math.max(getWidth(), 1);
+		int height = Math.max(getHeight(), 1);
+		if(gridLayer != null && gridLayer.getWidth() == width && gridLayer.getHeight() == height) {
+			return;
+		}
+		
+		this.gridLayer = Images.createCompatibleImage(width, height, Transparency.BITMASK);
+		Graphics2D g = gridLayer.createGraphics();
+		try {
+			g.translate(BORDER_WIDTH, BORDER_WIDTH);
+		
 			/*
-			 * Draw the background grid above the pieces (serves as a useful visual
-			 * for players, and makes the pieces look nicer by breaking them up.
+			 * Draw one line for each row and column. The lines along the top and left
+			 * edges are drawn over by the outline, so they're skipped.
 			 */
 			g.setColor(Color.DARK_GRAY);
-			for(int x = 0; x < COL_COUNT; x++) {
-				for(int y = 0; y < VISIBLE_ROW_COUNT; y++) {
-					g.drawLine(0, y * TILE_SIZE, COL_COUNT * TILE_SIZE, y * TILE_SIZE);
-					g.drawLine(x * TILE_SIZE, 0, x * TILE_SIZE, VISIBLE_ROW_COUNT * TILE_SIZE);
-				}
+			for(int y = 1; y < VISIBLE_ROW_COUNT; y++) {
+				g.drawLine(0, y * TILE_SIZE, COL_COUNT * TILE_SIZE, y * TILE_SIZE);
+			}
+			for(int x = 1; x < COL_COUNT; x++) {
+				g.drawLine(x * TILE_SIZE, 0, x * TILE_SIZE, VISIBLE_ROW_COUNT * TILE_SIZE);
 			}
+			drawOutline(g);
+		} finally {
+			g.dispose();
 		}
 		
 		/*
-		 * Draw the outline.
+		 * Because both the game over and new game screens are nearly identical,
+		 * they're rendered the same way with different messages. Switching fonts
+		 * while drawing text allocates inside of Java2D, so doing this once here
+		 * keeps it out of every frame.
 		 */
-		g.setColor(Color.WHITE);
-		g.drawRect(0, 0, TILE_SIZE * COL_COUNT, TILE_SIZE * VISIBLE_ROW_COUNT);
+		this.pausedLayer = renderScreen(width, height, PAUSED_MESSAGE, CENTER_Y, null);
+		this.newGameLayer = renderScreen(width, height, NEW_GAME_TITLE, 150, NEW_GAME_PROMPT);
+		this.gameOverLayer = renderScreen(width, height, GAME_OVER_TITLE, 150, GAME_OVER_PROMPT);
 	}
 	
 	/**
-	 * Draws a tile onto the board.
-	 * @param type The type of tile to draw.
-	 * @param x The column.
-	 * @param y The row.
-	 * @param g The graphics object.
+	 * Renders a screen with the outline, a title and an optional prompt into a new image.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param title The title, which is drawn in the large font.
+	 * @param titleY The baseline of the title.
+	 * @param prompt The prompt, which is drawn in the small font below the title, or null.
+	 * @return The image.
 	 */
-	private void drawTile(TileType type, int x, int y, Graphics g) {
-		drawTile(type.getBaseColor(), type.getLightColor(), type.getDarkColor(), x, y, g);
+	private BufferedImage renderScreen(int width, int height, String title, int titleY, String prompt) {
+		BufferedImage image = Images.createCompatibleImage(width, height, Transparency.BITMASK);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.translate(BORDER_WIDTH, BORDER_WIDTH);
+			
+			g.setFont(LARGE_FONT);
+			g.setColor(Color.WHITE);
+			g.drawString(title, CENTER_X - g.getFontMetrics().stringWidth(title) / 2, titleY);
+			if(prompt != null) {
+				g.setFont(SMALL_FONT);
+				g.drawString(prompt, CENTER_X - g.getFontMetrics().stringWidth(prompt) / 2, 300);
+			}
+			drawOutline(g);
+		} finally {
+			g.dispose();
+		}
+		return image;
 	}
 	
 	/**
-	 * Draws a tile onto the board.
-	 * @param base The base color of tile.
-	 * @param light The light color of the tile.
-	 * @param dark The dark color of the tile.
-	 * @param x The column.
-	 * @param y The row.
+	 * Draws the outline around the board.
 	 * @param g The graphics object.
 	 */
-	private void drawTile(Color base, Color light, Color dark, int x, int y, Graphics g) {
-		
-		/*
-		 * Fill the entire tile with the base color.
-		 */
-		g.setColor(base);
-		g.fillRect(x, y, TILE_SIZE, TILE_SIZE);
-		
-		/*
-		 * Fill the bottom and right edges of the tile with the dark shading color.
-		 */
-		g.setColor(dark);
-		g.fillRect(x, y + TILE_SIZE - SHADE_WIDTH, TILE_SIZE, SHADE_WIDTH);
-		g.fillRect(x + TILE_SIZE - SHADE_WIDTH, y, SHADE_WIDTH, TILE_SIZE);
-		
-		/*
-		 * Fill the top and left edges with the light shading. We draw a single line
-		 * for each row or column rather than a rectangle so that we can draw a nice
-		 * looking diagonal where the light and dark shading meet.
-		 */
-		g.setColor(light);
-		for(int i = 0; i < SHADE_WIDTH; i++) {
-			g.drawLine(x, y + i, x + TILE_SIZE - i - 1, y + i);
-			g.drawLine(x + i, y, x + i, y + TILE_SIZE - i - 1);
-		}
+	private void drawOutline(Graphics g) {
+		g.setColor(Color.WHITE);
+		g.drawRect(0, 0, TILE_SIZE * COL_COUNT, TILE_SIZE * VISIBLE_ROW_COUNT);
 	}
 
 }
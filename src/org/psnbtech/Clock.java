@@ -3,15 +3,29 @@ package org.psnbtech;
 /**
  * The {@code Clock} class is responsible for tracking the number of cycles
  * that have elapsed over time. 
+ * <p>
+ * Time is kept in whole nanoseconds and any time left over towards the next
+ * cycle is carried forward exactly, so the clock doesn't gain or lose cycles
+ * no matter how often or how irregularly it is updated.
  * @author Brendan Jones
  *
  */
 public class Clock {
 	
 	/**
-	 * The number of milliseconds that make up one cycle.
+	 * The number of nanoseconds in a second.
 	 */
-	private float millisPerCycle;
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	
+	/**
+	 * The source of the current time.
+	 */
+	private TimeSource time;
+	
+	/**
+	 * The number of nanoseconds that make up one cycle.
+	 */
+	private long nanosPerCycle;
 	
 	/**
 	 * The last time that the clock was updated (used for calculating the
@@ -25,9 +39,9 @@ public class Clock {
 	private int elapsedCycles;
 	
 	/**
-	 * The amount of excess time towards the next elapsed cycle.
+	 * The number of nanoseconds that have elapsed towards the next cycle.
 	 */
-	private float excessCycles;
+	private long excessNanos;
 	
 	/**
 	 * Whether or not the clock is paused.
@@ -39,6 +53,16 @@ public class Clock {
 	 * @param cyclesPerSecond The number of cycles that elapse per second.
 	 */
 	public Clock(float cyclesPerSecond) {
+		this(cyclesPerSecond, TimeSource.SYSTEM);
+	}
+	
+	/**
+	 * Creates a new clock that reads the time from a time source.
+	 * @param cyclesPerSecond The number of cycles that elapse per second.
+	 * @param time The source of the current time.
+	 */
+	public Clock(float cyclesPerSecond, TimeSource time) {
+		this.time = time;
 		setCyclesPerSecond(cyclesPerSecond);
 		reset();
 	}
@@ -48,7 +72,7 @@ public class Clock {
 	 * @param cyclesPerSecond The number of cycles per second.
 	 */
 	public void setCyclesPerSecond(float cyclesPerSecond) {
-		this.millisPerCycle = (1.0f / cyclesPerSecond) * 1000;
+		this.nanosPerCycle = Math.max(1L, Math.round(NANOS_PER_SECOND / (double)cyclesPerSecond));
 	}
 	
 	/**
@@ -58,7 +82,7 @@ public class Clock {
 	 */
 	public void reset() {
 		this.elapsedCycles = 0;
-		this.excessCycles = 0.0f;
+		this.excessNanos = 0L;
 		this.lastUpdate = getCurrentTime();
 		this.isPaused = false;
 	}
@@ -72,12 +96,17 @@ public class Clock {
 	public void update() {
 		//Get the current time and calculate the delta time.
 		long currUpdate = getCurrentTime();
-		float delta = (float)(currUpdate - lastUpdate) + excessCycles;
+		long delta = (currUpdate - lastUpdate) + excessNanos;
 		
-		//Update the number of elapsed and excess ticks if we're not paused.
+		/*
+		 * Update the number of elapsed cycles and the excess if we're not paused. The
+		 * excess is whatever is left after the whole cycles are taken out, so nothing
+		 * is lost to rounding between updates.
+		 */
 		if(!isPaused) {
-			this.elapsedCycles += (int)Math.floor(delta / millisPerCycle);
-			this.excessCycles = delta % millisPerCycle;
+			long cycles = delta / nanosPerCycle;
+			this.elapsedCycles += (int)cycles;
+			this.excessNanos = delta - cycles * nanosPerCycle;
 		}
 		
 		//Set the last update time for the next update cycle.
@@ -116,6 +145,17 @@ public class Clock {
 		return false;
 	}
 	
+	/**
+	 * Polls every cycle that has elapsed since the last time the cycles were
+	 * polled. The number of elapsed cycles will be reset to 0.
+	 * @return The number of cycles that have elapsed.
+	 */
+	public int drainElapsedCycles() {
+		int cycles = elapsedCycles;
+		this.elapsedCycles = 0;
+		return cycles;
+	}
+	
 	/**
 	 * Checks to see if a cycle has elapsed for this clock yet. Unlike
 	 * {@code hasElapsedCycle}, the number of cycles will not be decremented
@@ -128,14 +168,12 @@ public class Clock {
 	}
 	
 	/**
-	 * Calculates the current time in milliseconds using the computer's high
-	 * resolution clock. This is much more reliable than
-	 * {@code System.getCurrentTimeMillis()}, and quicker than
-	 * {@code System.nanoTime()}.
-	 * @return The current time in milliseconds.
+	 * Gets the current time in nanoseconds from the clock's time source. This
+	 * is kept at full precision so that fast cycle rates don't drift.
+	 * @return The current time in nanoseconds.
 	 */
-	private static final long getCurrentTime() {
-		return (System.nanoTime() / 1000000L);
+	private long getCurrentTime() {
+		return time.nanoTime();
 	}
 
 }
@@ -0,0 +1,57 @@
+package org.psnbtech;
+
+/**
+ * The {@code Command} enum describes every action that a player can ask the
+ * game to perform. Commands are queued up by the input thread and applied by
+ * the game loop, so that input never touches the game state directly.
+ * @author Brendan Jones
+ *
+ */
+public enum Command {
+
+	/**
+	 * Moves the current piece one column to the left.
+	 */
+	MOVE_LEFT,
+	
+	/**
+	 * Moves the current piece one column to the right.
+	 */
+	MOVE_RIGHT,
+	
+	/**
+	 * Rotates the current piece anticlockwise.
+	 */
+	ROTATE_ANTICLOCKWISE,
+	
+	/**
+	 * Rotates the current piece clockwise.
+	 */
+	ROTATE_CLOCKWISE,
+	
+	/**
+	 * Starts the soft drop.
+	 */
+	SOFT_DROP_START,
+	
+	/**
+	 * Stops the soft drop.
+	 */
+	SOFT_DROP_STOP,
+	
+	/**
+	 * Drops the current piece onto it's landing row and locks it.
+	 */
+	HARD_DROP,
+	
+	/**
+	 * Pauses or unpauses the game.
+	 */
+	TOGGLE_PAUSE,
+	
+	/**
+	 * Starts a new game.
+	 */
+	START;
+
+}
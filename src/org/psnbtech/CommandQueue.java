@@ -0,0 +1,133 @@
+package org.psnbtech;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code CommandQueue} class passes commands from the input thread to the
+ * game loop without locking. It is a fixed size ring buffer that is only safe
+ * with exactly one thread offering commands and exactly one thread polling them.
+ * <p>
+ * Each side owns one of the two counters and only ever writes to it's own. The
+ * producer writes a command into it's slot before publishing the new tail, and
+ * the consumer reads the slot before publishing the new head, so neither side
+ * can see a slot that the other is still using. The counters are published with
+ * {@code lazySet}, which orders the earlier writes without a full fence.
+ * @author Brendan Jones
+ *
+ */
+public class CommandQueue {
+
+	/**
+	 * The number of commands that can be waiting at once. This must be a power
+	 * of two. The game loop drains the queue every frame, so this is far more
+	 * than a player can press in one.
+	 */
+	private static final int CAPACITY = 64;
+
+	/**
+	 * The mask that turns a counter into a slot index.
+	 */
+	private static final int MASK = CAPACITY - 1;
+
+	/**
+	 * The command in each slot.
+	 */
+	private Command[] commands;
+
+	/**
+	 * The time that each slot's command was offered, in nanoseconds.
+	 */
+	private long[] timestamps;
+
+	/**
+	 * The number of commands that have been polled. Only written by the consumer.
+	 */
+	private AtomicLong head;
+
+	/**
+	 * The number of commands that have been offered. Only written by the producer.
+	 */
+	private AtomicLong tail;
+
+	/**
+	 * The producer's last look at the head, so it doesn't need to read the
+	 * consumer's counter until the queue looks full.
+	 */
+	private long cachedHead;
+
+	/**
+	 * The consumer's last look at the tail, so it doesn't need to read the
+	 * producer's counter until the queue looks empty.
+	 */
+	private long cachedTail;
+
+	/**
+	 * The time that the last polled command was offered.
+	 */
+	private long polledTimestamp;
+
+	/**
+	 * Creates a new, empty CommandQueue.
+	 */
+	public CommandQueue() {
+		this.commands = new Command[CAPACITY];
+		this.timestamps = new long[CAPACITY];
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+	}
+
+	/**
+	 * Adds a command to the queue. Must only be called by the producer thread.
+	 * @param command The command.
+	 * @param timestamp The time that the command was issued, in nanoseconds.
+	 * @return Whether or not the command was added. Commands are dropped if the
+	 * queue is full.
+	 */
+	public boolean offer(Command command, long timestamp) {
+		long index = tail.get();
+		if(index - cachedHead >= CAPACITY) {
+			this.cachedHead = head.get();
+			if(index - cachedHead >= CAPACITY) {
+				return false;
+			}
+		}
+
+		int slot = (int)index & MASK;
+		commands[slot] = command;
+		timestamps[slot] = timestamp;
+		tail.lazySet(index + 1);
+		return true;
+	}
+
+	/**
+	 * Removes the oldest command from the queue. Must only be called by the
+	 * consumer thread.
+	 * @return The command, or null if the queue is empty.
+	 * @see #getPolledTimestamp()
+	 */
+	public Command poll() {
+		long index = head.get();
+		if(index >= cachedTail) {
+			this.cachedTail = tail.get();
+			if(index >= cachedTail) {
+				return null;
+			}
+		}
+
+		int slot = (int)index & MASK;
+		Command command = commands[slot];
+		this.polledTimestamp = timestamps[slot];
+		head.lazySet(index + 1);
+		return command;
+	}
+
+	/**
+	 * Gets the time that the last command returned by {@code poll} was issued.
+	 * Must only be called by the consumer thread.
+	 * @return The time, in nanoseconds.
+	 */
+	public long getPolledTimestamp() {
+		return polledTimestamp;
+	}
+
+}
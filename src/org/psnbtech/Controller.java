@@ -0,0 +1,19 @@
+package org.psnbtech;
+
+/**
+ * The {@code Controller} interface is implemented by anything that can play a
+ * game on a {@link GameEngine} without a human at the keyboard.
+ * @author Brendan Jones
+ *
+ */
+public interface Controller {
+
+	/**
+	 * Plays the engine's current piece. This is called once for each piece that
+	 * is spawned, and is expected to issue commands to the engine until the piece
+	 * has been locked into place (usually by finishing with {@code hardDrop}).
+	 * @param engine The engine to control.
+	 */
+	public void control(GameEngine engine);
+
+}
@@ -0,0 +1,166 @@
+package org.psnbtech;
+
+/**
+ * The {@code DirtyRegion} class keeps track of which parts of the game have
+ * changed since they were last displayed. Board changes are tracked per tile,
+ * as a mask of columns for each row, and the side panel is tracked per field.
+ * @author Brendan Jones
+ *
+ */
+public class DirtyRegion {
+
+	/**
+	 * The field flag for the score.
+	 */
+	public static final int FIELD_SCORE = 1;
+
+	/**
+	 * The field flag for the level.
+	 */
+	public static final int FIELD_LEVEL = 2;
+
+	/**
+	 * The field flag for the next piece preview.
+	 */
+	public static final int FIELD_NEXT = 4;
+
+	/**
+	 * The changed columns of each row.
+	 */
+	private int[] rows;
+
+	/**
+	 * The flags of the side panel fields that have changed.
+	 */
+	private int fields;
+
+	/**
+	 * Whether or not everything needs to be displayed again, such as when the
+	 * game is paused or a new game is started.
+	 */
+	private boolean isAll;
+
+	/**
+	 * Creates a new, empty DirtyRegion.
+	 */
+	public DirtyRegion() {
+		this.rows = new int[Board.ROW_COUNT];
+	}
+
+	/**
+	 * Marks the tiles covered by a piece as changed.
+	 * @param type The type of piece.
+	 * @param x The x coordinate of the piece.
+	 * @param y The y coordinate of the piece.
+	 * @param rotation The rotation of the piece.
+	 */
+	public void markPiece(TileType type, int x, int y, int rotation) {
+		int[] masks = type.getRowMasks(rotation, x);
+		for(int row = 0; row < masks.length; row++) {
+			if(masks[row] != 0) {
+				rows[y + row] |= masks[row];
+			}
+		}
+	}
+
+	/**
+	 * Marks every tile in a range of rows as changed.
+	 * @param from The first row.
+	 * @param to The last row (inclusive).
+	 */
+	public void markRows(int from, int to) {
+		for(int row = Math.max(from, 0); row <= to && row < Board.ROW_COUNT; row++) {
+			rows[row] = Board.FULL_ROW;
+		}
+	}
+
+	/**
+	 * Marks side panel fields as changed.
+	 * @param flags The field flags.
+	 */
+	public void markFields(int flags) {
+		this.fields |= flags;
+	}
+
+	/**
+	 * Marks everything as changed.
+	 */
+	public void markAll() {
+		this.isAll = true;
+	}
+
+	/**
+	 * Replaces the contents of this region with the contents of another.
+	 * @param other The region to copy.
+	 */
+	public void copyFrom(DirtyRegion other) {
+		System.arraycopy(other.rows, 0, rows, 0, Board.ROW_COUNT);
+		this.fields = other.fields;
+		this.isAll = other.isAll;
+	}
+
+	/**
+	 * Marks everything that has changed in another region as changed.
+	 * @param other The other region.
+	 */
+	public void merge(DirtyRegion other) {
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			rows[row] |= other.rows[row];
+		}
+		this.fields |= other.fields;
+		this.isAll |= other.isAll;
+	}
+
+	/**
+	 * Checks to see whether or not anything has changed.
+	 * @return Whether or not the region is empty.
+	 */
+	public boolean isEmpty() {
+		if(isAll || fields != 0) {
+			return false;
+		}
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			if(rows[row] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks to see whether or not everything needs to be displayed again.
+	 * @return Whether or not everything has changed.
+	 */
+	public boolean isAll() {
+		return isAll;
+	}
+
+	/**
+	 * Gets the changed columns of a row.
+	 * @param row The row.
+	 * @return A mask with bit {@code n} set if column {@code n} has changed.
+	 */
+	public int getColumns(int row) {
+		return rows[row];
+	}
+
+	/**
+	 * Gets the side panel fields that have changed.
+	 * @return The field flags.
+	 */
+	public int getFields() {
+		return fields;
+	}
+
+	/**
+	 * Marks everything as unchanged.
+	 */
+	public void clear() {
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			rows[row] = 0;
+		}
+		this.fields = 0;
+		this.isAll = false;
+	}
+
+}
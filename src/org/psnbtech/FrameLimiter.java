@@ -0,0 +1,89 @@
+package org.psnbtech;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code FrameLimiter} class caps the rate that the game loop runs at.
+ * <p>
+ * Each frame has a deadline that advances by exactly one frame period, rather
+ * than being measured from when the frame happened to finish, so small delays
+ * in one frame are made up in the next and the average rate never drifts. Most
+ * of the wait is spent asleep, and the last stretch is spent yielding, since the
+ * operating system's sleep can overshoot by a millisecond or more.
+ * @author Brendan Jones
+ *
+ */
+public class FrameLimiter {
+
+	/**
+	 * How close to the deadline we stop sleeping and start yielding, in nanoseconds.
+	 */
+	private static final long SPIN_NANOS = 2000000L;
+
+	/**
+	 * The number of nanoseconds that make up one frame.
+	 */
+	private long nanosPerFrame;
+
+	/**
+	 * The time that the current frame should end.
+	 */
+	private long deadline;
+
+	/**
+	 * Creates a new FrameLimiter.
+	 * @param framesPerSecond The number of frames to run per second, which must be
+	 * at least 1.
+	 */
+	public FrameLimiter(int framesPerSecond) {
+		if(framesPerSecond < 1) {
+			throw new IllegalArgumentException("Frame rate out of range: " + framesPerSecond);
+		}
+		this.nanosPerFrame = 1000000000L / framesPerSecond;
+		reset();
+	}
+
+	/**
+	 * Starts counting the current frame from now.
+	 */
+	public void reset() {
+		this.deadline = System.nanoTime() + nanosPerFrame;
+	}
+
+	/**
+	 * Waits until the current frame's deadline and starts the next frame.
+	 * <p>
+	 * If the loop has fallen more than a whole frame behind (if the computer was
+	 * suspended, for example), the deadline is moved up to now rather than running
+	 * a burst of frames back to back to catch up.
+	 * @return Whether or not the deadline had already passed, meaning the frame
+	 * took longer than one frame period.
+	 */
+	public boolean sync() {
+		long remaining = deadline - System.nanoTime();
+		boolean isMissed = (remaining < 0);
+		while(remaining > SPIN_NANOS) {
+			LockSupport.parkNanos(remaining - SPIN_NANOS);
+			remaining = deadline - System.nanoTime();
+		}
+		while(remaining > 0) {
+			Thread.yield();
+			remaining = deadline - System.nanoTime();
+		}
+
+		this.deadline += nanosPerFrame;
+		if(-remaining > nanosPerFrame) {
+			this.deadline = System.nanoTime() + nanosPerFrame;
+		}
+		return isMissed;
+	}
+
+	/**
+	 * Gets the number of nanoseconds that make up one frame.
+	 * @return The frame period.
+	 */
+	public long getNanosPerFrame() {
+		return nanosPerFrame;
+	}
+
+}
@@ -0,0 +1,268 @@
+package org.psnbtech;
+
+/**
+ * The {@code FrameSnapshot} class is a copy of everything that the views need
+ * to draw a single frame. The engine fills one in at the end of each tick and
+ * hands it over through a {@code SnapshotBuffer}, so the views never read the
+ * game while it's being changed.
+ * <p>
+ * Each snapshot also carries the parts of the game that have changed since the
+ * last snapshot that the views picked up.
+ * @author Brendan Jones
+ *
+ */
+public class FrameSnapshot {
+
+	/**
+	 * A copy of the board.
+	 */
+	private Board board;
+
+	/**
+	 * The parts of the game that have changed since the last snapshot that was read.
+	 */
+	private DirtyRegion dirty;
+
+	/**
+	 * Whether or not the game is paused.
+	 */
+	private boolean isPaused;
+
+	/**
+	 * Whether or not we've played a game yet.
+	 */
+	private boolean isNewGame;
+
+	/**
+	 * Whether or not the game is over.
+	 */
+	private boolean isGameOver;
+
+	/**
+	 * The current level.
+	 */
+	private int level;
+
+	/**
+	 * The current score.
+	 */
+	private int score;
+
+	/**
+	 * The type of the current piece.
+	 */
+	private TileType pieceType;
+
+	/**
+	 * The type of the next piece.
+	 */
+	private TileType nextPieceType;
+
+	/**
+	 * The column of the current piece.
+	 */
+	private int pieceCol;
+
+	/**
+	 * The row of the current piece.
+	 */
+	private int pieceRow;
+
+	/**
+	 * The rotation of the current piece.
+	 */
+	private int pieceRotation;
+
+	/**
+	 * The row that the current piece will land on.
+	 */
+	private int ghostRow;
+
+	/**
+	 * The row that the current piece fell from during the last tick.
+	 */
+	private int fallStartRow;
+
+	/**
+	 * Whether or not the snapshot shows any input that the reader hasn't seen yet.
+	 */
+	private boolean hasInput;
+
+	/**
+	 * The time that the oldest input the reader hasn't seen yet was issued.
+	 */
+	private long inputTime;
+
+	/**
+	 * Creates a new, empty FrameSnapshot that needs to be displayed in full.
+	 */
+	public FrameSnapshot() {
+		this.board = new Board();
+		this.dirty = new DirtyRegion();
+		dirty.markAll();
+	}
+
+	/**
+	 * Copies the state of the game into this snapshot.
+	 * @param engine The engine to copy.
+	 */
+	void capture(GameEngine engine) {
+		board.copyFrom(engine.getBoard());
+		this.isPaused = engine.isPaused();
+		this.isNewGame = engine.isNewGame();
+		this.isGameOver = engine.isGameOver();
+		this.level = engine.getLevel();
+		this.score = engine.getScore();
+		this.pieceType = engine.getPieceType();
+		this.nextPieceType = engine.getNextPieceType();
+		this.pieceCol = engine.getPieceCol();
+		this.pieceRow = engine.getPieceRow();
+		this.pieceRotation = engine.getPieceRotation();
+		this.ghostRow = engine.getGhostRow();
+		this.fallStartRow = engine.getFallStartRow();
+		this.hasInput = engine.hasInput();
+		this.inputTime = engine.getInputTime();
+	}
+
+	/**
+	 * Sets the oldest input that the snapshot shows.
+	 * @param hasInput Whether or not there is any input.
+	 * @param inputTime The time that the input was issued, in nanoseconds.
+	 */
+	void setInput(boolean hasInput, long inputTime) {
+		this.hasInput = hasInput;
+		this.inputTime = inputTime;
+	}
+
+	/**
+	 * Gets the copy of the board.
+	 * @return The board.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Gets the parts of the game that have changed since the last snapshot that
+	 * was read. This must not be modified by the reader.
+	 * @return The changes.
+	 */
+	public DirtyRegion getDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Checks to see whether or not the game was paused.
+	 * @return Whether or not the game was paused.
+	 */
+	public boolean isPaused() {
+		return isPaused;
+	}
+
+	/**
+	 * Checks to see whether or not we were still waiting for the first game.
+	 * @return Whether or not this is a new game.
+	 */
+	public boolean isNewGame() {
+		return isNewGame;
+	}
+
+	/**
+	 * Checks to see whether or not the game was over.
+	 * @return Whether or not the game was over.
+	 */
+	public boolean isGameOver() {
+		return isGameOver;
+	}
+
+	/**
+	 * Gets the level.
+	 * @return The level.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the score.
+	 * @return The score.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the type of the current piece.
+	 * @return The piece type.
+	 */
+	public TileType getPieceType() {
+		return pieceType;
+	}
+
+	/**
+	 * Gets the type of the next piece.
+	 * @return The next piece type.
+	 */
+	public TileType getNextPieceType() {
+		return nextPieceType;
+	}
+
+	/**
+	 * Gets the column of the current piece.
+	 * @return The piece column.
+	 */
+	public int getPieceCol() {
+		return pieceCol;
+	}
+
+	/**
+	 * Gets the row of the current piece.
+	 * @return The piece row.
+	 */
+	public int getPieceRow() {
+		return pieceRow;
+	}
+
+	/**
+	 * Gets the rotation of the current piece.
+	 * @return The piece rotation.
+	 */
+	public int getPieceRotation() {
+		return pieceRotation;
+	}
+
+	/**
+	 * Gets the row that the current piece will land on.
+	 * @return The ghost row.
+	 */
+	public int getGhostRow() {
+		return ghostRow;
+	}
+
+	/**
+	 * Gets the row that the current piece fell from during the last tick.
+	 * @return The row that the piece fell from.
+	 */
+	public int getFallStartRow() {
+		return fallStartRow;
+	}
+
+	/**
+	 * Checks to see whether or not the snapshot is the first one to show some
+	 * input, so that the time taken for it to reach the screen can be measured.
+	 * @return Whether or not there is any input.
+	 */
+	public boolean hasInput() {
+		return hasInput;
+	}
+
+	/**
+	 * Gets the time that the oldest input shown for the first time in this
+	 * snapshot was issued.
+	 * @return The input time, in nanoseconds.
+	 */
+	public long getInputTime() {
+		return inputTime;
+	}
+
+}
@@ -0,0 +1,1004 @@
+package org.psnbtech;
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code GameEngine} class is responsible for handling all of the game logic.
+ * It has no dependency on any windowing code, so a game can be run without a
+ * display, and is driven entirely through it's command methods and {@code tick}.
+ * <p>
+ * The engine is not thread safe. Everything except {@code submit} must be called
+ * from the thread running the game loop; other threads, such as the one that
+ * handles input, hand their commands over with {@code submit} and they are
+ * applied at the start of the next tick.
+ * @author Brendan Jones
+ *
+ */
+public class GameEngine {
+
+	/**
+	 * The number of times per second that {@code tick} is called during a live
+	 * game. The drop cool down is counted in ticks, so headless games need to
+	 * advance time by {@code NANOS_PER_FRAME} per tick to play like a live one.
+	 */
+	public static final int FRAMES_PER_SECOND = 50;
+
+	/**
+	 * The number of nanoseconds between calls to {@code tick} during a live game.
+	 */
+	public static final long NANOS_PER_FRAME = 1000000000L / FRAMES_PER_SECOND;
+
+	/**
+	 * Every type of piece. {@code TileType.values()} returns a new copy of this
+	 * array each time it's called, so it's only called once.
+	 */
+	private static final TileType[] TYPES = TileType.values();
+
+	/**
+	 * The number of pieces that exist.
+	 */
+	private static final int TYPE_COUNT = TYPES.length;
+
+	/**
+	 * The board that pieces are placed on.
+	 */
+	private Board board;
+
+	/**
+	 * Whether or not the game is paused.
+	 */
+	private boolean isPaused;
+
+	/**
+	 * Whether or not we've played a game yet. This is set to true
+	 * initially and then set to false when the game starts.
+	 */
+	private boolean isNewGame;
+
+	/**
+	 * Whether or not the game is over.
+	 */
+	private boolean isGameOver;
+
+	/**
+	 * The current level we're on.
+	 */
+	private int level;
+
+	/**
+	 * The current score.
+	 */
+	private int score;
+
+	/**
+	 * The random number generator. This is used to
+	 * spit out pieces randomly.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * The clock that handles the update logic.
+	 */
+	private Clock logicTimer;
+
+	/**
+	 * The current type of tile.
+	 */
+	private TileType currentType;
+
+	/**
+	 * The next type of tile.
+	 */
+	private TileType nextType;
+
+	/**
+	 * The current column of our tile.
+	 */
+	private int currentCol;
+
+	/**
+	 * The current row of our tile.
+	 */
+	private int currentRow;
+
+	/**
+	 * The current rotation of our tile.
+	 */
+	private int currentRotation;
+
+	/**
+	 * The row that the current piece would land on if it were dropped.
+	 */
+	private int ghostRow;
+
+	/**
+	 * The number of pieces that have been spawned this game.
+	 */
+	private int pieceCount;
+
+	/**
+	 * The number of the piece at the start of the last tick.
+	 */
+	private int tickStartPiece;
+
+	/**
+	 * The column of the piece at the start of the last tick.
+	 */
+	private int tickStartCol;
+
+	/**
+	 * The row of the piece at the start of the last tick.
+	 */
+	private int tickStartRow;
+
+	/**
+	 * The rotation of the piece at the start of the last tick.
+	 */
+	private int tickStartRotation;
+
+	/**
+	 * The parts of the game that have changed since they were last displayed.
+	 */
+	private DirtyRegion dirty;
+
+	/**
+	 * The type of the piece as it was last displayed.
+	 */
+	private TileType shownType;
+
+	/**
+	 * The column of the piece as it was last displayed.
+	 */
+	private int shownCol;
+
+	/**
+	 * The row of the piece as it was last displayed.
+	 */
+	private int shownRow;
+
+	/**
+	 * The rotation of the piece as it was last displayed.
+	 */
+	private int shownRotation;
+
+	/**
+	 * The ghost row of the piece as it was last displayed.
+	 */
+	private int shownGhostRow;
+
+	/**
+	 * The score as it was last displayed.
+	 */
+	private int shownScore;
+
+	/**
+	 * The level as it was last displayed.
+	 */
+	private int shownLevel;
+
+	/**
+	 * The next piece as it was last displayed.
+	 */
+	private TileType shownNextType;
+
+	/**
+	 * The paused, new game and game over flags as they were last displayed.
+	 */
+	private int shownState;
+
+	/**
+	 * Ensures that a certain amount of time passes after a piece is
+	 * spawned before we can drop it.
+	 */
+	private int dropCooldown;
+
+	/**
+	 * The speed of the game.
+	 */
+	private float gameSpeed;
+
+	/**
+	 * The commands submitted by other threads that are waiting to be applied.
+	 */
+	private CommandQueue commands;
+
+	/**
+	 * The snapshots that are published to the views at the end of each tick.
+	 */
+	private SnapshotBuffer snapshots;
+
+	/**
+	 * Whether or not pieces fall instantly ("20G" gravity). The current piece
+	 * always sits on it's landing row and locks on the next gravity cycle.
+	 */
+	private boolean isInstantGravity;
+
+	/**
+	 * Whether or not any commands were applied during the current tick.
+	 */
+	private boolean hasInput;
+
+	/**
+	 * The time that the oldest command applied during the current tick was issued.
+	 */
+	private long inputTime;
+
+	/**
+	 * Creates a new GameEngine that picks pieces using an unseeded random
+	 * number generator.
+	 */
+	public GameEngine() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Creates a new GameEngine. The game will not start until {@code start}
+	 * is called.
+	 * @param random The random number generator used to pick pieces. Games that
+	 * are given generators with the same seed will be dealt the same pieces.
+	 */
+	public GameEngine(SplittableRandom random) {
+		this(random, TimeSource.SYSTEM);
+	}
+
+	/**
+	 * Creates a new GameEngine that reads the time from a time source. Headless
+	 * games can use a {@code ManualTimeSource} to run faster than real time,
+	 * advancing it by one frame's worth of time before each call to {@code tick}.
+	 * @param random The random number generator used to pick pieces.
+	 * @param time The source of the current time for the logic timer.
+	 */
+	public GameEngine(SplittableRandom random, TimeSource time) {
+		this.board = new Board();
+		this.dirty = new DirtyRegion();
+		this.commands = new CommandQueue();
+		this.snapshots = new SnapshotBuffer();
+		this.random = random;
+		this.isNewGame = true;
+		this.gameSpeed = 1.0f;
+
+		/*
+		 * Setup the timer to keep the game from running before the game
+		 * has been started.
+		 */
+		this.logicTimer = new Clock(gameSpeed, time);
+		logicTimer.setPaused(true);
+
+		//Nothing has been displayed yet.
+		this.shownState = -1;
+		dirty.markAll();
+		publish();
+	}
+
+	/**
+	 * Advances the game by one frame. Any submitted commands are applied first,
+	 * then the current piece is moved down by one row for every cycle that has
+	 * elapsed on the logic timer since the last frame.
+	 */
+	public void tick() {
+		/*
+		 * Each tick is recorded as a Flight Recorder event. The events are only
+		 * created while they're being recorded, so that the tick never allocates
+		 * otherwise.
+		 */
+		TickEvent event = null;
+		if(TickEvent.isRecording()) {
+			event = new TickEvent();
+			event.begin();
+		}
+
+		//Remember where the piece started so the views can show it falling smoothly.
+		this.tickStartPiece = pieceCount;
+		this.tickStartCol = currentCol;
+		this.tickStartRow = currentRow;
+		this.tickStartRotation = currentRotation;
+
+		//Apply the commands that were submitted since the last frame, in order.
+		Command command;
+		int commandCount = 0;
+		this.hasInput = false;
+		while((command = commands.poll()) != null) {
+			if(!hasInput) {
+				this.hasInput = true;
+				this.inputTime = commands.getPolledTimestamp();
+			}
+			execute(command);
+			commandCount++;
+		}
+
+		//Update the logic timer.
+		logicTimer.update();
+
+		/*
+		 * Once the game speed passes the frame rate, more than one cycle can elapse
+		 * per frame. All of them are applied at once so gravity doesn't fall behind.
+		 */
+		int cycles = logicTimer.drainElapsedCycles();
+		if(cycles > 0) {
+			applyGravity(cycles);
+		}
+
+		//Decrement the drop cool down if necessary.
+		if(dropCooldown > 0) {
+			dropCooldown--;
+		}
+
+		//Hand the finished frame over to the views.
+		publish();
+
+		if(event != null) {
+			event.commands = commandCount;
+			event.gravityCycles = cycles;
+			event.isPlaying = isPlaying();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Copies the current state of the game into a snapshot, along with everything
+	 * that has changed since the last one, and publishes it to the views. This is
+	 * called at the end of every tick, and only needs to be called directly when
+	 * the game is changed outside of {@code tick}.
+	 */
+	public void publish() {
+		snapshots.getBack().capture(this);
+		snapshots.publish(collectChanges());
+		dirty.clear();
+	}
+
+	/**
+	 * Lets the engine know that the game loop stopped calling {@code tick} for a
+	 * while, such as when it sleeps while the game is paused. The logic timer is
+	 * paused whenever a game isn't being played, so it's brought up to date without
+	 * counting the time that was skipped; otherwise the first tick after unpausing
+	 * would apply gravity for the whole time that the loop was asleep.
+	 */
+	public void skipIdleTime() {
+		logicTimer.update();
+	}
+
+	/**
+	 * Gets the buffer that snapshots are published to. The views read from this,
+	 * and it may be read from a different thread than the one running the game loop.
+	 * @return The snapshot buffer.
+	 */
+	public SnapshotBuffer getSnapshots() {
+		return snapshots;
+	}
+
+	/**
+	 * Hands a command over to the game loop. This is the only method that is safe
+	 * to call from a thread other than the one running the game loop, and must
+	 * only be called from one such thread. The command is applied at the start of
+	 * the next tick.
+	 * @param command The command.
+	 * @param timestamp The time that the command was issued, in nanoseconds.
+	 * @return Whether or not the command was accepted. Commands are dropped if
+	 * too many are waiting.
+	 */
+	public boolean submit(Command command, long timestamp) {
+		return commands.offer(command, timestamp);
+	}
+
+	/**
+	 * Applies a command immediately.
+	 * @param command The command.
+	 */
+	public void execute(Command command) {
+		switch(command) {
+		case MOVE_LEFT:
+			moveLeft();
+			break;
+		case MOVE_RIGHT:
+			moveRight();
+			break;
+		case ROTATE_ANTICLOCKWISE:
+			rotateAnticlockwise();
+			break;
+		case ROTATE_CLOCKWISE:
+			rotateClockwise();
+			break;
+		case SOFT_DROP_START:
+			softDrop(true);
+			break;
+		case SOFT_DROP_STOP:
+			softDrop(false);
+			break;
+		case HARD_DROP:
+			hardDrop();
+			break;
+		case TOGGLE_PAUSE:
+			togglePause();
+			break;
+		case START:
+			start();
+			break;
+		}
+	}
+
+	/**
+	 * Starts a new game if we're in either a game over or new game state.
+	 */
+	public void start() {
+		if(isGameOver || isNewGame) {
+			resetGame(null);
+		}
+	}
+
+	/**
+	 * Starts a new game on a board that already has tiles on it, if we're in
+	 * either a game over or new game state. The tiles are in place before the
+	 * first piece spawns, so it's ghost lands on top of them.
+	 * @param layout The board to start from, which is copied rather than used.
+	 */
+	public void start(Board layout) {
+		if(isGameOver || isNewGame) {
+			resetGame(layout);
+		}
+	}
+
+	/**
+	 * Toggles the pause state if we're currently playing a game. The logic timer
+	 * is updated to reflect this change, otherwise the game will execute a huge
+	 * number of updates and essentially cause an instant game over when we unpause
+	 * if we stay paused for more than a minute or so.
+	 */
+	public void togglePause() {
+		if(!isGameOver && !isNewGame) {
+			isPaused = !isPaused;
+			logicTimer.setPaused(isPaused);
+		}
+	}
+
+	/**
+	 * Moves the current piece one column to the left if that position is valid.
+	 */
+	public void moveLeft() {
+		if(isPlaying() && board.isValidAndEmpty(currentType, currentCol - 1, currentRow, currentRotation)) {
+			currentCol--;
+			updateGhost();
+		}
+	}
+
+	/**
+	 * Moves the current piece one column to the right if that position is valid.
+	 */
+	public void moveRight() {
+		if(isPlaying() && board.isValidAndEmpty(currentType, currentCol + 1, currentRow, currentRotation)) {
+			currentCol++;
+			updateGhost();
+		}
+	}
+
+	/**
+	 * Attempts to rotate the current piece anticlockwise.
+	 */
+	public void rotateAnticlockwise() {
+		if(isPlaying()) {
+			rotatePiece((currentRotation == 0) ? 3 : currentRotation - 1);
+		}
+	}
+
+	/**
+	 * Attempts to rotate the current piece clockwise.
+	 */
+	public void rotateClockwise() {
+		if(isPlaying()) {
+			rotatePiece((currentRotation == 3) ? 0 : currentRotation + 1);
+		}
+	}
+
+	/**
+	 * Starts or stops the soft drop. While dropping, the logic timer runs at a speed
+	 * of 25 cycles per second. Dropping can only start once the drop cooldown has
+	 * passed. When it stops, the speed of the logic timer is set back to whatever
+	 * the current game speed is and any cycles that might still be elapsed are
+	 * cleared out.
+	 * @param dropping Whether or not the piece should be dropping.
+	 */
+	public void softDrop(boolean dropping) {
+		if(dropping) {
+			if(isPlaying() && dropCooldown == 0) {
+				logicTimer.setCyclesPerSecond(25.0f);
+			}
+		} else {
+			logicTimer.setCyclesPerSecond(gameSpeed);
+
+			//Resetting also unpauses the timer, so only do it while a game is running.
+			if(isPlaying()) {
+				logicTimer.reset();
+			}
+		}
+	}
+
+	/**
+	 * Drops the current piece straight down as far as it can go and locks it
+	 * into place.
+	 */
+	public void hardDrop() {
+		if(isPlaying()) {
+			currentRow = ghostRow;
+			lockPiece();
+		}
+	}
+
+	/**
+	 * Moves the current piece straight to a position, drops it and locks it into
+	 * place. This is for controllers that have already searched for where the piece
+	 * can go, such as with a {@code MoveGenerator}, so it isn't checked that the
+	 * piece could have been moved there; only that it fits.
+	 * @param x The column to place the piece in.
+	 * @param y The row to place the piece on.
+	 * @param rotation The rotation to place the piece in.
+	 */
+	public void placePiece(int x, int y, int rotation) {
+		if(isPlaying() && board.isValidAndEmpty(currentType, x, y, rotation)) {
+			this.currentCol = x;
+			this.currentRow = y;
+			this.currentRotation = rotation;
+			updateGhost();
+			this.currentRow = ghostRow;
+			lockPiece();
+		}
+	}
+
+	/**
+	 * Moves the current piece down by one row, or locks it into place if it
+	 * can't move any further. This is a single gravity cycle; {@code tick} uses
+	 * {@code applyGravity} to apply every elapsed cycle at once.
+	 */
+	public void updateGame() {
+		/*
+		 * Check to see if the piece's position can move down to the next row.
+		 */
+		if(board.isValidAndEmpty(currentType, currentCol, currentRow + 1, currentRotation)) {
+			//Increment the current row if it's safe to do so.
+			currentRow++;
+		} else {
+			/*
+			 * We've either reached the bottom of the board, or landed on another piece, so
+			 * we need to add the piece to the board.
+			 */
+			lockPiece();
+		}
+	}
+
+	/**
+	 * Moves the current piece down by a number of rows at once, which is the same
+	 * as calling {@code updateGame} that many times. The piece moves straight to
+	 * it's landing row if there are enough cycles to get it there, and a cycle
+	 * left over after that locks it. Locking resets the logic timer, so any other
+	 * cycles are dropped just as they would have been one at a time.
+	 * @param cycles The number of gravity cycles to apply.
+	 */
+	public void applyGravity(int cycles) {
+		if(!isPlaying()) {
+			return;
+		}
+		
+		//Remember where the piece was for the event, since locking it spawns the next one.
+		TileType type = currentType;
+		int col = currentCol;
+		int fromRow = currentRow;
+		int rotation = currentRotation;
+		GravityEvent event = null;
+		if(GravityEvent.isRecording()) {
+			event = new GravityEvent();
+			event.begin();
+		}
+
+		int distance = ghostRow - currentRow;
+		boolean isLocked = (cycles > distance);
+		if(isLocked) {
+			this.currentRow = ghostRow;
+			lockPiece();
+		} else {
+			this.currentRow += cycles;
+		}
+
+		if(event != null) {
+			event.cycles = cycles;
+			event.pieceType = type.name();
+			event.rotation = rotation;
+			event.col = col;
+			event.fromRow = fromRow;
+			event.toRow = fromRow + Math.min(cycles, distance);
+			event.isLocked = isLocked;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Adds the current piece to the board at it's current position, scores any
+	 * lines that were cleared, and spawns the next piece.
+	 */
+	private void lockPiece() {
+		PieceLockEvent lockEvent = null;
+		if(PieceLockEvent.isRecording()) {
+			lockEvent = new PieceLockEvent();
+			lockEvent.begin();
+		}
+		board.addPiece(currentType, currentCol, currentRow, currentRotation);
+		if(lockEvent != null) {
+			lockEvent.end();
+			lockEvent.pieceType = currentType.name();
+			lockEvent.rotation = currentRotation;
+			lockEvent.col = currentCol;
+			lockEvent.row = currentRow;
+			lockEvent.commit();
+		}
+		dirty.markPiece(currentType, currentCol, currentRow, currentRotation);
+
+		/*
+		 * Check to see if adding the new piece resulted in any cleared lines. If so,
+		 * increase the player's score. (Up to 4 lines can be cleared in a single go;
+		 * [1 = 100pts, 2 = 200pts, 3 = 400pts, 4 = 800pts]).
+		 */
+		LineClearEvent clearEvent = null;
+		if(LineClearEvent.isRecording()) {
+			clearEvent = new LineClearEvent();
+			clearEvent.begin();
+		}
+		int cleared = board.checkLines();
+		if(cleared > 0) {
+			score += 50 << cleared;
+
+			//Every row above the lowest cleared line has moved down.
+			int lowest = 31 - Integer.numberOfLeadingZeros(board.getClearedRows());
+			dirty.markRows(0, lowest);
+
+			if(clearEvent != null) {
+				clearEvent.end();
+				clearEvent.lines = cleared;
+				clearEvent.lowestRow = lowest;
+				clearEvent.score = score;
+				clearEvent.commit();
+			}
+		}
+
+		/*
+		 * Increase the speed slightly for the next piece and update the game's timer
+		 * to reflect the increase.
+		 */
+		gameSpeed += 0.035f;
+		logicTimer.setCyclesPerSecond(gameSpeed);
+		logicTimer.reset();
+
+		/*
+		 * Set the drop cooldown so the next piece doesn't automatically come flying
+		 * in from the heavens immediately after this piece hits if we've not reacted
+		 * yet. (~0.5 second buffer).
+		 */
+		dropCooldown = 25;
+
+		/*
+		 * Update the difficulty level. This has no effect on the game, and is only
+		 * used in the "Level" string in the SidePanel.
+		 */
+		level = (int)(gameSpeed * 1.70f);
+
+		/*
+		 * Spawn a new piece to control.
+		 */
+		spawnPiece();
+	}
+
+	/**
+	 * Resets the game variables to their default values at the start
+	 * of a new game.
+	 * @param layout The board to start from, or null to start from an empty board.
+	 */
+	private void resetGame(Board layout) {
+		this.level = 1;
+		this.score = 0;
+		this.gameSpeed = 1.0f;
+		this.nextType = TYPES[random.nextInt(TYPE_COUNT)];
+		this.isNewGame = false;
+		this.isGameOver = false;
+		if(layout != null) {
+			board.copyFrom(layout);
+		} else {
+			board.clear();
+		}
+		dirty.markAll();
+		logicTimer.reset();
+		logicTimer.setCyclesPerSecond(gameSpeed);
+		spawnPiece();
+	}
+
+	/**
+	 * Spawns a new piece and resets our piece's variables to their default
+	 * values.
+	 */
+	private void spawnPiece() {
+		/*
+		 * Poll the last piece and reset our position and rotation to
+		 * their default variables, then pick the next piece to use.
+		 */
+		this.currentType = nextType;
+		this.currentCol = currentType.getSpawnColumn();
+		this.currentRow = currentType.getSpawnRow();
+		this.currentRotation = 0;
+		this.nextType = TYPES[random.nextInt(TYPE_COUNT)];
+		this.pieceCount++;
+
+		/*
+		 * If the spawn point is invalid, we need to pause the game and flag that we've lost
+		 * because it means that the pieces on the board have gotten too high.
+		 */
+		if(!board.isValidAndEmpty(currentType, currentCol, currentRow, currentRotation)) {
+			this.isGameOver = true;
+			logicTimer.setPaused(true);
+		}
+
+		if(PieceSpawnEvent.isRecording()) {
+			PieceSpawnEvent event = new PieceSpawnEvent();
+			event.pieceNumber = pieceCount;
+			event.pieceType = currentType.name();
+			event.nextType = nextType.name();
+			event.col = currentCol;
+			event.row = currentRow;
+			event.isGameOver = isGameOver;
+			event.commit();
+		}
+		updateGhost();
+	}
+
+	/**
+	 * Attempts to set the rotation of the current piece to newRotation.
+	 * @param newRotation The rotation of the new peice.
+	 */
+	public void rotatePiece(int newRotation) {
+		/*
+		 * Sometimes pieces will need to be moved when rotated to avoid clipping
+		 * out of the board (the I piece is a good example of this). If the piece
+		 * is too close to an edge, it's moved away from it so that it doesn't
+		 * automatically become invalid. The move generator kicks pieces the same
+		 * way, so it finds the same placements that a player can reach.
+		 */
+		int newColumn = currentType.getKickCol(newRotation, currentCol);
+		int newRow = currentType.getKickRow(newRotation, currentRow);
+
+		/*
+		 * Check to see if the new position is acceptable. If it is, update the rotation and
+		 * position of the piece.
+		 */
+		if(board.isValidAndEmpty(currentType, newColumn, newRow, newRotation)) {
+			currentRotation = newRotation;
+			currentRow = newRow;
+			currentCol = newColumn;
+			updateGhost();
+		}
+	}
+
+	/**
+	 * Finds the row that the current piece would land on if it were dropped
+	 * straight down from it's current position. With instant gravity, the
+	 * piece is moved there as well.
+	 */
+	private void updateGhost() {
+		this.ghostRow = board.getLandingRow(currentType, currentCol, currentRow, currentRotation);
+		if(isInstantGravity && !isGameOver) {
+			this.currentRow = ghostRow;
+		}
+	}
+
+	/**
+	 * Works out which parts of the game have changed since the last snapshot, by
+	 * comparing the current piece, ghost, side panel fields and game state against
+	 * the ones that were last published. Changes to the board itself are recorded
+	 * as they happen.
+	 * @return The changed parts of the game.
+	 */
+	private DirtyRegion collectChanges() {
+		int state = (isPaused ? 1 : 0) | (isNewGame ? 2 : 0) | (isGameOver ? 4 : 0);
+		if(state != shownState) {
+			dirty.markAll();
+			this.shownState = state;
+		}
+
+		/*
+		 * If the piece or it's ghost has moved, both the old and the new positions
+		 * need to be displayed again.
+		 */
+		if(currentType != null && (currentType != shownType || currentCol != shownCol || currentRow != shownRow
+				|| currentRotation != shownRotation || ghostRow != shownGhostRow)) {
+			if(shownType != null) {
+				dirty.markPiece(shownType, shownCol, shownRow, shownRotation);
+				dirty.markPiece(shownType, shownCol, shownGhostRow, shownRotation);
+			}
+			dirty.markPiece(currentType, currentCol, currentRow, currentRotation);
+			dirty.markPiece(currentType, currentCol, ghostRow, currentRotation);
+
+			this.shownType = currentType;
+			this.shownCol = currentCol;
+			this.shownRow = currentRow;
+			this.shownRotation = currentRotation;
+			this.shownGhostRow = ghostRow;
+		}
+
+		if(score != shownScore) {
+			dirty.markFields(DirtyRegion.FIELD_SCORE);
+			this.shownScore = score;
+		}
+		if(level != shownLevel) {
+			dirty.markFields(DirtyRegion.FIELD_LEVEL);
+			this.shownLevel = level;
+		}
+		if(nextType != shownNextType) {
+			dirty.markFields(DirtyRegion.FIELD_NEXT);
+			this.shownNextType = nextType;
+		}
+		return dirty;
+	}
+
+	/**
+	 * Turns instant ("20G") gravity on or off. While it's on, pieces drop to their
+	 * landing row as soon as they spawn or move.
+	 * @param instantGravity Whether or not pieces should fall instantly.
+	 */
+	public void setInstantGravity(boolean instantGravity) {
+		this.isInstantGravity = instantGravity;
+		if(instantGravity && isPlaying()) {
+			updateGhost();
+		}
+	}
+
+	/**
+	 * Checks to see whether or not pieces fall instantly.
+	 * @return Whether or not instant gravity is on.
+	 */
+	public boolean isInstantGravity() {
+		return isInstantGravity;
+	}
+
+	/**
+	 * Checks to see whether or not a game is in progress and accepting moves.
+	 * @return Whether or not the game is running and not paused.
+	 */
+	public boolean isPlaying() {
+		return !isPaused && !isNewGame && !isGameOver;
+	}
+
+	/**
+	 * Gets the board that pieces are placed on.
+	 * @return The board.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Checks to see whether or not the game is paused.
+	 * @return Whether or not the game is paused.
+	 */
+	public boolean isPaused() {
+		return isPaused;
+	}
+
+	/**
+	 * Checks to see whether or not the game is over.
+	 * @return Whether or not the game is over.
+	 */
+	public boolean isGameOver() {
+		return isGameOver;
+	}
+
+	/**
+	 * Checks to see whether or not we're on a new game.
+	 * @return Whether or not this is a new game.
+	 */
+	public boolean isNewGame() {
+		return isNewGame;
+	}
+
+	/**
+	 * Gets the current score.
+	 * @return The score.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the current level.
+	 * @return The level.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the current type of piece we're using.
+	 * @return The piece type.
+	 */
+	public TileType getPieceType() {
+		return currentType;
+	}
+
+	/**
+	 * Gets the next type of piece we're using.
+	 * @return The next piece.
+	 */
+	public TileType getNextPieceType() {
+		return nextType;
+	}
+
+	/**
+	 * Gets the column of the current piece.
+	 * @return The column.
+	 */
+	public int getPieceCol() {
+		return currentCol;
+	}
+
+	/**
+	 * Gets the row of the current piece.
+	 * @return The row.
+	 */
+	public int getPieceRow() {
+		return currentRow;
+	}
+
+	/**
+	 * Gets the rotation of the current piece.
+	 * @return The rotation.
+	 */
+	public int getPieceRotation() {
+		return currentRotation;
+	}
+
+	/**
+	 * Gets the Zobrist hash of the position, which covers the occupied tiles on
+	 * the board along with the type, rotation and position of the current piece.
+	 * @return The hash.
+	 */
+	public long getHash() {
+		long hash = board.getHash();
+		if(currentType != null) {
+			hash ^= Zobrist.getPieceKey(currentType, currentCol, currentRow, currentRotation);
+		}
+		return hash;
+	}
+
+	/**
+	 * Gets the row that the current piece would land on if it were dropped.
+	 * @return The ghost row.
+	 */
+	public int getGhostRow() {
+		return ghostRow;
+	}
+
+	/**
+	 * Gets the row that the current piece fell from during the last tick. If the
+	 * piece has done anything other than fall straight down since the tick started
+	 * (if it was moved, rotated or has only just spawned), this is the piece's
+	 * current row, since there's nothing to smooth out.
+	 * @return The row that the piece fell from.
+	 */
+	public int getFallStartRow() {
+		if(tickStartPiece == pieceCount && tickStartCol == currentCol && tickStartRotation == currentRotation
+				&& tickStartRow <= currentRow) {
+			return tickStartRow;
+		}
+		return currentRow;
+	}
+
+	/**
+	 * Checks to see whether or not any commands were applied during the last tick.
+	 * @return Whether or not there was any input.
+	 */
+	public boolean hasInput() {
+		return hasInput;
+	}
+
+	/**
+	 * Gets the time that the oldest command applied during the last tick was
+	 * issued, as given to {@code submit}.
+	 * @return The input time, in nanoseconds.
+	 */
+	public long getInputTime() {
+		return inputTime;
+	}
+
+}
@@ -0,0 +1,81 @@
+package org.psnbtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code GravityEvent} class is the Flight Recorder event that is emitted
+ * whenever gravity moves the current piece down, or locks it.
+ * @author Brendan Jones
+ *
+ */
+@Name("org.psnbtech.Gravity")
+@Label("Gravity")
+@Category("Tetris")
+@Description("Gravity moving the current piece down")
+@StackTrace(false)
+class GravityEvent extends Event {
+
+	/**
+	 * The type of this event, which knows whether or not it's being recorded.
+	 */
+	private static final EventType TYPE = EventType.getEventType(GravityEvent.class);
+
+	/**
+	 * The number of gravity cycles that were applied at once.
+	 */
+	@Label("Cycles")
+	int cycles;
+
+	/**
+	 * The type of the piece.
+	 */
+	@Label("Piece Type")
+	String pieceType;
+
+	/**
+	 * The rotation of the piece.
+	 */
+	@Label("Rotation")
+	int rotation;
+
+	/**
+	 * The column of the piece.
+	 */
+	@Label("Column")
+	int col;
+
+	/**
+	 * The row the piece was on before gravity was applied.
+	 */
+	@Label("From Row")
+	int fromRow;
+
+	/**
+	 * The row the piece was on after gravity was applied.
+	 */
+	@Label("To Row")
+	int toRow;
+
+	/**
+	 * Whether or not the piece was locked into place.
+	 */
+	@Label("Locked")
+	boolean isLocked;
+
+	/**
+	 * Checks to see whether or not this event is being recorded. The engine only
+	 * creates the event when it is, so nothing is allocated on every tick when
+	 * nothing is being recorded.
+	 * @return Whether or not the event is enabled.
+	 */
+	static boolean isRecording() {
+		return TYPE.isEnabled();
+	}
+
+}
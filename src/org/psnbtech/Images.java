@@ -0,0 +1,41 @@
+package org.psnbtech;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * The {@code Images} class contains helpers for creating the offscreen images
+ * that parts of the game are pre-rendered into.
+ * @author Brendan Jones
+ *
+ */
+public final class Images {
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private Images() {
+	}
+
+	/**
+	 * Creates an empty image. Where there is a screen, the image uses the screen's
+	 * pixel format so that it can be copied without any conversion.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param transparency The transparency mode of the image, as defined by
+	 * {@link Transparency}.
+	 * @return The image.
+	 */
+	public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+		if(!GraphicsEnvironment.isHeadless()) {
+			GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+					.getDefaultScreenDevice().getDefaultConfiguration();
+			return config.createCompatibleImage(width, height, transparency);
+		}
+		int imageType = (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+		return new BufferedImage(width, height, imageType);
+	}
+
+}
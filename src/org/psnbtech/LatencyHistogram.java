@@ -0,0 +1,187 @@
+package org.psnbtech;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code LatencyHistogram} class counts how many durations fall into each of a
+ * fixed set of buckets, so that percentiles can be read without keeping every
+ * duration that has been recorded.
+ * <p>
+ * Each power of two is split into {@code SUB_BUCKET_COUNT} equal buckets, so the
+ * buckets are narrow for short durations and wide for long ones, and a percentile
+ * is never out by more than about 6%. Recording is a single atomic increment and
+ * never allocates, so it's cheap enough to do every frame, and it's safe to read
+ * the histogram from another thread while it's being recorded into.
+ * @author Brendan Jones
+ *
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+	/**
+	 * The number of bits of each duration that pick the bucket within it's power of two.
+	 */
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/**
+	 * The number of buckets that each power of two is split into.
+	 */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * The number of buckets needed to cover every positive long.
+	 */
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	/**
+	 * The number of durations that have fallen into each bucket.
+	 */
+	private AtomicLongArray buckets;
+
+	/**
+	 * The total of every duration that has been recorded, in nanoseconds.
+	 */
+	private AtomicLong total;
+
+	/**
+	 * The longest duration that has been recorded, in nanoseconds.
+	 */
+	private AtomicLong max;
+
+	/**
+	 * Creates a new, empty LatencyHistogram.
+	 */
+	public LatencyHistogram() {
+		this.buckets = new AtomicLongArray(BUCKET_COUNT);
+		this.total = new AtomicLong();
+		this.max = new AtomicLong();
+	}
+
+	/**
+	 * Records a duration.
+	 * @param nanos The duration, in nanoseconds. Negative durations are counted as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0L);
+		buckets.incrementAndGet(getBucket(value));
+		total.addAndGet(value);
+
+		long longest = max.get();
+		while(value > longest && !max.compareAndSet(longest, value)) {
+			longest = max.get();
+		}
+	}
+
+	/**
+	 * Gets the duration that a percentage of the recorded durations are no longer
+	 * than. This is the upper edge of the bucket that the percentile falls into,
+	 * or the longest duration if that's smaller.
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return The duration, in nanoseconds, or 0 if nothing has been recorded.
+	 */
+	public long getPercentile(double percentile) {
+		/*
+		 * Durations can be recorded while we're reading, so the buckets are counted
+		 * up first and the same counts are used to find the percentile.
+		 */
+		long[] counts = new long[BUCKET_COUNT];
+		long count = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = buckets.get(i);
+			count += counts[i];
+		}
+		if(count == 0) {
+			return 0L;
+		}
+
+		long rank = Math.max(1L, (long)Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if(seen >= rank) {
+				return Math.min(getUpperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	@Override
+	public long getCount() {
+		long count = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			count += buckets.get(i);
+		}
+		return count;
+	}
+
+	@Override
+	public double getMeanMicros() {
+		long count = getCount();
+		return (count > 0) ? total.get() / 1e3 / count : 0.0;
+	}
+
+	@Override
+	public double getP50Micros() {
+		return getPercentile(50.0) / 1e3;
+	}
+
+	@Override
+	public double getP99Micros() {
+		return getPercentile(99.0) / 1e3;
+	}
+
+	@Override
+	public double getP999Micros() {
+		return getPercentile(99.9) / 1e3;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return max.get() / 1e3;
+	}
+
+	/**
+	 * Clears every recorded duration. Anything recorded while the histogram is
+	 * being cleared may or may not be kept.
+	 */
+	@Override
+	public void reset() {
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0L);
+		}
+		total.set(0L);
+		max.set(0L);
+	}
+
+	/**
+	 * Gets the bucket that a duration falls into. Durations shorter than
+	 * {@code SUB_BUCKET_COUNT} have a bucket each; after that, the highest set bit
+	 * picks the power of two and the next {@code SUB_BUCKET_BITS} bits pick the
+	 * bucket within it.
+	 * @param value The duration, which must not be negative.
+	 * @return The index of the bucket.
+	 */
+	private static int getBucket(long value) {
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		if(magnitude < SUB_BUCKET_BITS) {
+			return (int)value;
+		}
+		int shift = magnitude - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int)(value >>> shift) - SUB_BUCKET_COUNT;
+	}
+
+	/**
+	 * Gets the longest duration that falls into a bucket.
+	 * @param bucket The index of the bucket.
+	 * @return The upper edge of the bucket, in nanoseconds.
+	 */
+	private static long getUpperBound(int bucket) {
+		if(bucket < SUB_BUCKET_COUNT) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKET_COUNT - 1;
+		long lower = (long)(SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.psnbtech;
+
+/**
+ * The {@code LatencyHistogramMXBean} interface is the management interface of a
+ * {@link LatencyHistogram}, which lets the durations it has recorded be watched
+ * from a JMX console such as JConsole or VisualVM.
+ * @author Brendan Jones
+ *
+ */
+public interface LatencyHistogramMXBean {
+
+	/**
+	 * Gets the number of durations that have been recorded.
+	 * @return The count.
+	 */
+	public long getCount();
+
+	/**
+	 * Gets the mean duration.
+	 * @return The mean, in microseconds.
+	 */
+	public double getMeanMicros();
+
+	/**
+	 * Gets the median duration.
+	 * @return The 50th percentile, in microseconds.
+	 */
+	public double getP50Micros();
+
+	/**
+	 * Gets the duration that 99% of durations are no longer than.
+	 * @return The 99th percentile, in microseconds.
+	 */
+	public double getP99Micros();
+
+	/**
+	 * Gets the duration that 99.9% of durations are no longer than.
+	 * @return The 99.9th percentile, in microseconds.
+	 */
+	public double getP999Micros();
+
+	/**
+	 * Gets the longest duration.
+	 * @return The maximum, in microseconds.
+	 */
+	public double getMaxMicros();
+
+	/**
+	 * Clears every recorded duration.
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,58 @@
+package org.psnbtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code LineClearEvent} class is the Flight Recorder event that is emitted
+ * whenever locking a piece clears lines. It's duration is the time taken to find
+ * and clear them.
+ * @author Brendan Jones
+ *
+ */
+@Name("org.psnbtech.LineClear")
+@Label("Line Clear")
+@Category("Tetris")
+@Description("Lines being cleared from the board")
+@StackTrace(false)
+class LineClearEvent extends Event {
+
+	/**
+	 * The type of this event, which knows whether or not it's being recorded.
+	 */
+	private static final EventType TYPE = EventType.getEventType(LineClearEvent.class);
+
+	/**
+	 * The number of lines that were cleared.
+	 */
+	@Label("Lines")
+	int lines;
+
+	/**
+	 * The lowest row that was cleared.
+	 */
+	@Label("Lowest Row")
+	int lowestRow;
+
+	/**
+	 * The score after the lines were scored.
+	 */
+	@Label("Score")
+	int score;
+
+	/**
+	 * Checks to see whether or not this event is being recorded. The engine only
+	 * creates the event when it is, so nothing is allocated on every tick when
+	 * nothing is being recorded.
+	 * @return Whether or not the event is enabled.
+	 */
+	static boolean isRecording() {
+		return TYPE.isEnabled();
+	}
+
+}
@@ -0,0 +1,41 @@
+package org.psnbtech;
+
+/**
+ * The {@code ManualTimeSource} class is a time source that only moves forward
+ * when it is told to. A game driven by one behaves exactly as it would live, as
+ * long as time is advanced by the same amount between ticks as a real frame
+ * would take.
+ * @author Brendan Jones
+ *
+ */
+public class ManualTimeSource implements TimeSource {
+
+	/**
+	 * The current time in nanoseconds.
+	 */
+	private long time;
+
+	/**
+	 * Creates a new ManualTimeSource starting at time 0.
+	 */
+	public ManualTimeSource() {
+		this.time = 0L;
+	}
+
+	/**
+	 * Moves the time forward.
+	 * @param nanos The number of nanoseconds to move forward by.
+	 */
+	public void advance(long nanos) {
+		if(nanos < 0) {
+			throw new IllegalArgumentException("Time cannot move backwards.");
+		}
+		this.time += nanos;
+	}
+
+	@Override
+	public long nanoTime() {
+		return time;
+	}
+
+}
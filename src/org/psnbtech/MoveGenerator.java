@@ -0,0 +1,376 @@
+package org.psnbtech;
+
+/**
+ * The {@code MoveGenerator} class finds every distinct placement that a piece
+ * can reach from where it is, by moving it left, right and down, and rotating it
+ * the same way that {@code GameEngine.rotatePiece} does. A placement is a
+ * position that the piece can't fall any further from, so it would be locked
+ * there.
+ * <p>
+ * The search is a flood fill over every column, row and rotation of the piece.
+ * The columns that the piece fits in on a row are worked out together from the
+ * board's row masks, and the positions that have been reached are kept as a mask
+ * of columns for each row, so a whole row of positions is moved at once with a
+ * handful of bit operations. Rotations that cover the same tiles (such as
+ * opposite rotations of the I, S and Z pieces) only produce one placement.
+ * <p>
+ * The generator keeps all of it's working state between calls so that it never
+ * allocates, which makes it cheap enough to call at every node of a search. This
+ * also means it must only be used by one thread at a time.
+ * @author Brendan Jones
+ *
+ */
+public class MoveGenerator {
+
+	/**
+	 * How far a piece's column can be to the left of the board, which is the
+	 * largest dimension of any piece. Columns are stored offset by this much.
+	 */
+	private static final int COL_OFFSET = 4;
+
+	/**
+	 * How far a piece's row can be above the board. Rows are stored offset by
+	 * this much.
+	 */
+	private static final int ROW_OFFSET = 4;
+
+	/**
+	 * The number of rows that a piece can be on.
+	 */
+	private static final int ROW_SLOTS = Board.ROW_COUNT + ROW_OFFSET;
+
+	/**
+	 * The most placements that can be found, which is one for every position
+	 * that a piece can be in.
+	 */
+	private static final int MAX_PLACEMENTS = 4 * ROW_SLOTS * (Board.COL_COUNT + COL_OFFSET);
+
+	/**
+	 * The columns that the piece fits in on each row, for each rotation.
+	 */
+	private int[][] fits;
+
+	/**
+	 * The rows of {@code fits} that have been worked out for the current search,
+	 * as a mask for each rotation.
+	 */
+	private int[] fitsKnown;
+
+	/**
+	 * The positions that have been reached, as a mask of columns for each row of
+	 * each rotation.
+	 */
+	private int[][] reached;
+
+	/**
+	 * The rows that have reached new positions and need to be searched from
+	 * again, as a mask for each rotation.
+	 */
+	private int[] pending;
+
+	/**
+	 * The placements that have been found, as a mask of columns for each row of
+	 * each canonical rotation.
+	 */
+	private int[][] placed;
+
+	/**
+	 * The column of each placement.
+	 */
+	private int[] cols;
+
+	/**
+	 * The row of each placement.
+	 */
+	private int[] rows;
+
+	/**
+	 * The rotation of each placement.
+	 */
+	private int[] rotations;
+
+	/**
+	 * The number of placements found by the last search.
+	 */
+	private int count;
+
+	/**
+	 * The board being searched.
+	 */
+	private Board board;
+
+	/**
+	 * The type of piece being placed.
+	 */
+	private TileType type;
+
+	/**
+	 * Creates a new MoveGenerator.
+	 */
+	public MoveGenerator() {
+		this.fits = new int[4][ROW_SLOTS];
+		this.fitsKnown = new int[4];
+		this.reached = new int[4][ROW_SLOTS];
+		this.pending = new int[4];
+		this.placed = new int[4][ROW_SLOTS];
+		this.cols = new int[MAX_PLACEMENTS];
+		this.rows = new int[MAX_PLACEMENTS];
+		this.rotations = new int[MAX_PLACEMENTS];
+	}
+
+	/**
+	 * Finds every placement that the engine's current piece can reach.
+	 * @param engine The engine.
+	 * @return The number of placements found.
+	 */
+	public int generate(GameEngine engine) {
+		return generate(engine.getBoard(), engine.getPieceType(), engine.getPieceCol(), engine.getPieceRow(), engine.getPieceRotation());
+	}
+
+	/**
+	 * Finds every placement that a piece can reach from a position. The placements
+	 * can be read with {@code getCol}, {@code getRow} and {@code getRotation} until
+	 * the next search.
+	 * @param board The board to place the piece on.
+	 * @param type The type of piece.
+	 * @param x The column that the piece starts in.
+	 * @param y The row that the piece starts on.
+	 * @param rotation The rotation that the piece starts in.
+	 * @return The number of placements found, which is 0 if the piece doesn't fit
+	 * where it starts.
+	 */
+	public int generate(Board board, TileType type, int x, int y, int rotation) {
+		this.board = board;
+		this.type = type;
+		this.count = 0;
+		for(int r = 0; r < 4; r++) {
+			fitsKnown[r] = 0;
+			pending[r] = 0;
+			for(int row = 0; row < ROW_SLOTS; row++) {
+				reached[r][row] = 0;
+				placed[r][row] = 0;
+			}
+		}
+
+		if(x < -COL_OFFSET || x >= Board.COL_COUNT) {
+			return 0;
+		}
+		reach(rotation, y, 1 << (x + COL_OFFSET));
+
+		/*
+		 * Keep searching from rows that have reached new positions until none are
+		 * left. Rotating can reach new positions in a rotation that has already been
+		 * searched, so we go around the rotations again until nothing changes.
+		 */
+		boolean isSearching = true;
+		while(isSearching) {
+			isSearching = false;
+			for(int r = 0; r < 4; r++) {
+				while(pending[r] != 0) {
+					int row = Integer.numberOfTrailingZeros(pending[r]);
+					pending[r] &= ~(1 << row);
+					search(r, row - ROW_OFFSET);
+					isSearching = true;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the number of placements found by the last search.
+	 * @return The number of placements.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the column of a placement.
+	 * @param index The index of the placement.
+	 * @return The column.
+	 */
+	public int getCol(int index) {
+		return cols[index];
+	}
+
+	/**
+	 * Gets the row of a placement.
+	 * @param index The index of the placement.
+	 * @return The row.
+	 */
+	public int getRow(int index) {
+		return rows[index];
+	}
+
+	/**
+	 * Gets the rotation of a placement.
+	 * @param index The index of the placement.
+	 * @return The rotation.
+	 */
+	public int getRotation(int index) {
+		return rotations[index];
+	}
+
+	/**
+	 * Searches from every position that has been reached on a row. The piece is
+	 * slid left and right as far as it can go, then every position is moved down,
+	 * locked if it can't move down, and rotated both ways, a whole row at a time.
+	 * @param rotation The rotation.
+	 * @param y The row.
+	 */
+	private void search(int rotation, int y) {
+		int row = y + ROW_OFFSET;
+		int fit = getFits(rotation, y);
+
+		/*
+		 * Slide every position left and right until it runs into the walls or the
+		 * stack. Each pass moves every position at once, so this takes at most one
+		 * pass per column.
+		 */
+		int positions = reached[rotation][row];
+		int last;
+		do {
+			last = positions;
+			positions |= ((positions << 1) | (positions >>> 1)) & fit;
+		} while(positions != last);
+		reached[rotation][row] = positions;
+
+		/*
+		 * Move every position down a row. Positions that can't move down are
+		 * placements, but they can still be rotated before they're locked.
+		 */
+		int below = getFits(rotation, y + 1);
+		reach(rotation, y + 1, positions & below);
+		for(int resting = positions & ~below; resting != 0; resting &= resting - 1) {
+			addPlacement(Integer.numberOfTrailingZeros(resting) - COL_OFFSET, y, rotation);
+		}
+
+		rotate(positions, y, (rotation + 1) & 3);
+		rotate(positions, y, (rotation + 3) & 3);
+	}
+
+	/**
+	 * Rotates positions on a row, kicking them away from the edges of the board
+	 * the same way that {@code GameEngine.rotatePiece} does.
+	 * @param positions The positions to rotate, as a mask of columns.
+	 * @param y The row.
+	 * @param rotation The new rotation.
+	 */
+	private void rotate(int positions, int y, int rotation) {
+		/*
+		 * Positions away from the walls aren't moved, so they can all be rotated at
+		 * once. Only those close enough to a wall to be kicked are moved one at a time.
+		 */
+		int first = COL_OFFSET - type.getLeftInset(rotation);
+		int last = COL_OFFSET + Board.COL_COUNT - type.getDimension() + type.getRightInset(rotation) - 1;
+		int inside = ((1 << (last + 1)) - 1) & ~((1 << first) - 1);
+		int rotated = positions & inside;
+		for(int outside = positions & ~inside; outside != 0; outside &= outside - 1) {
+			int x = Integer.numberOfTrailingZeros(outside) - COL_OFFSET;
+			rotated |= 1 << (type.getKickCol(rotation, x) + COL_OFFSET);
+		}
+		reach(rotation, type.getKickRow(rotation, y), rotated);
+	}
+
+	/**
+	 * Marks positions as reached if the piece fits there, and queues their row to
+	 * be searched from if any of them are new.
+	 * @param rotation The rotation.
+	 * @param y The row.
+	 * @param positions The positions, as a mask of columns.
+	 */
+	private void reach(int rotation, int y, int positions) {
+		positions &= getFits(rotation, y);
+		if(positions == 0) {
+			return;
+		}
+
+		int row = y + ROW_OFFSET;
+		if((positions & ~reached[rotation][row]) != 0) {
+			reached[rotation][row] |= positions;
+			pending[rotation] |= 1 << row;
+		}
+	}
+
+	/**
+	 * Records a placement, unless the same tiles have already been placed in
+	 * another rotation.
+	 * @param x The column.
+	 * @param y The row.
+	 * @param rotation The rotation.
+	 */
+	private void addPlacement(int x, int y, int rotation) {
+		int canonical = type.getCanonicalRotation(rotation);
+		int row = y + type.getCanonicalRowOffset(rotation) + ROW_OFFSET;
+		int bit = 1 << (x + type.getCanonicalColOffset(rotation) + COL_OFFSET);
+		if((placed[canonical][row] & bit) != 0) {
+			return;
+		}
+		placed[canonical][row] |= bit;
+		cols[count] = x;
+		rows[count] = y;
+		rotations[count] = rotation;
+		count++;
+	}
+
+	/**
+	 * Gets the columns that the piece fits in on a row, working them out the
+	 * first time that the row is needed.
+	 * @param rotation The rotation.
+	 * @param y The row.
+	 * @return A mask with bit {@code x + COL_OFFSET} set if the piece fits in column {@code x}.
+	 */
+	private int getFits(int rotation, int y) {
+		int row = y + ROW_OFFSET;
+		if(row < 0 || row >= ROW_SLOTS) {
+			return 0;
+		}
+		if((fitsKnown[rotation] & (1 << row)) == 0) {
+			fits[rotation][row] = findFits(y, rotation);
+			fitsKnown[rotation] |= 1 << row;
+		}
+		return fits[rotation][row];
+	}
+
+	/**
+	 * Works out every column that the piece fits in on a row.
+	 * <p>
+	 * The piece's row masks are shifted across the board one column at a time,
+	 * so rather than looking up the masks for every column, the masks for the
+	 * leftmost column are shifted along and tested against the board's rows.
+	 * @param y The row.
+	 * @param rotation The rotation.
+	 * @return A mask with bit {@code x + COL_OFFSET} set if the piece fits in column {@code x}.
+	 */
+	private int findFits(int y, int rotation) {
+		int dimension = type.getDimension();
+		if(y < -type.getTopInset(rotation) || y + dimension - type.getBottomInset(rotation) >= Board.ROW_COUNT) {
+			return 0;
+		}
+
+		/*
+		 * Take the masks for the leftmost valid column, then shift them along to every
+		 * other valid column. None of the tiles fall off of the board in that range,
+		 * so the shifted masks are exactly the piece's masks for each column.
+		 */
+		int first = -type.getLeftInset(rotation);
+		int last = Board.COL_COUNT - dimension + type.getRightInset(rotation) - 1;
+		int[] masks = type.getRowMasks(rotation, first);
+		int result = 0;
+		for(int shift = 0; shift <= last - first; shift++) {
+			boolean isEmpty = true;
+			for(int row = 0; row < dimension && isEmpty; row++) {
+				int mask = masks[row];
+				if(mask != 0 && (board.getRowMask(y + row) & (mask << shift)) != 0) {
+					isEmpty = false;
+				}
+			}
+			if(isEmpty) {
+				result |= 1 << (first + shift + COL_OFFSET);
+			}
+		}
+		return result;
+	}
+
+}
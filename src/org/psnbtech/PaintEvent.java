@@ -0,0 +1,68 @@
+package org.psnbtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code PaintEvent} class is the Flight Recorder event that is emitted
+ * whenever a panel is painted. It's duration is the time taken to paint it.
+ * @author Brendan Jones
+ *
+ */
+@Name("org.psnbtech.Paint")
+@Label("Paint")
+@Category("Tetris")
+@Description("A panel being painted")
+@StackTrace(false)
+class PaintEvent extends Event {
+
+	/**
+	 * The type of this event, which knows whether or not it's being recorded.
+	 */
+	private static final EventType TYPE = EventType.getEventType(PaintEvent.class);
+
+	/**
+	 * The name of the panel.
+	 */
+	@Label("Panel")
+	String panel;
+
+	/**
+	 * The x coordinate of the area that was painted.
+	 */
+	@Label("X")
+	int x;
+
+	/**
+	 * The y coordinate of the area that was painted.
+	 */
+	@Label("Y")
+	int y;
+
+	/**
+	 * The width of the area that was painted.
+	 */
+	@Label("Width")
+	int width;
+
+	/**
+	 * The height of the area that was painted.
+	 */
+	@Label("Height")
+	int height;
+
+	/**
+	 * Checks to see whether or not this event is being recorded. The panels only
+	 * create the event when it is, so that painting doesn't allocate otherwise.
+	 * @return Whether or not the event is enabled.
+	 */
+	static boolean isRecording() {
+		return TYPE.isEnabled();
+	}
+
+}
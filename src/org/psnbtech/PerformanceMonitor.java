@@ -0,0 +1,225 @@
+package org.psnbtech;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The {@code PerformanceMonitor} class records how long each part of the game
+ * loop takes and how well the loop is keeping up with the tick and frame rates.
+ * <p>
+ * The game loop and the event dispatch thread record into it while it's read
+ * from the JMX threads, so everything is kept in atomics and recording never
+ * blocks or allocates. Once registered, the monitor appears under the
+ * {@code org.psnbtech} domain, with a histogram for each part of the loop.
+ * @author Brendan Jones
+ *
+ */
+public class PerformanceMonitor implements PerformanceMonitorMXBean {
+
+	/**
+	 * The JMX domain that the monitor and it's histograms are registered under.
+	 */
+	private static final String DOMAIN = "org.psnbtech";
+
+	/**
+	 * How long each tick of the engine takes.
+	 */
+	private LatencyHistogram tickTimes;
+
+	/**
+	 * How long the game loop takes to render each frame. In active rendering mode
+	 * this is the time taken to draw and present the whole frame; otherwise it's
+	 * only the time taken to ask Swing to repaint.
+	 */
+	private LatencyHistogram renderTimes;
+
+	/**
+	 * How long Swing takes to paint the BoardPanel.
+	 */
+	private LatencyHistogram boardPaintTimes;
+
+	/**
+	 * How long Swing takes to paint the SidePanel.
+	 */
+	private LatencyHistogram sidePaintTimes;
+
+	/**
+	 * How long it takes from a key being pressed until the first frame showing
+	 * it's effect has been painted.
+	 */
+	private LatencyHistogram inputLatencies;
+
+	/**
+	 * The number of frames that have been drawn.
+	 */
+	private AtomicLong frameCount;
+
+	/**
+	 * The number of frames that missed their deadline.
+	 */
+	private AtomicLong missedFrames;
+
+	/**
+	 * The number of ticks that the game loop was behind before the last frame.
+	 */
+	private AtomicInteger ticksBehind;
+
+	/**
+	 * The most ticks that the game loop has been behind before a frame.
+	 */
+	private AtomicInteger maxTicksBehind;
+
+	/**
+	 * The number of ticks that have been skipped.
+	 */
+	private AtomicLong skippedTicks;
+
+	/**
+	 * Creates a new PerformanceMonitor with nothing recorded.
+	 */
+	public PerformanceMonitor() {
+		this.tickTimes = new LatencyHistogram();
+		this.renderTimes = new LatencyHistogram();
+		this.boardPaintTimes = new LatencyHistogram();
+		this.sidePaintTimes = new LatencyHistogram();
+		this.inputLatencies = new LatencyHistogram();
+		this.frameCount = new AtomicLong();
+		this.missedFrames = new AtomicLong();
+		this.ticksBehind = new AtomicInteger();
+		this.maxTicksBehind = new AtomicInteger();
+		this.skippedTicks = new AtomicLong();
+	}
+
+	/**
+	 * Registers the monitor and it's histograms with the platform MBean server.
+	 * @throws JMException If they couldn't be registered, such as when another
+	 * monitor has already been registered in this JVM.
+	 */
+	public void register() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.registerMBean(this, new ObjectName(DOMAIN + ":type=PerformanceMonitor"));
+		server.registerMBean(tickTimes, getHistogramName("Tick"));
+		server.registerMBean(renderTimes, getHistogramName("Render"));
+		server.registerMBean(boardPaintTimes, getHistogramName("BoardPaint"));
+		server.registerMBean(sidePaintTimes, getHistogramName("SidePaint"));
+		server.registerMBean(inputLatencies, getHistogramName("InputLatency"));
+	}
+
+	/**
+	 * Records a drawn frame, and how far behind the game loop was before it.
+	 * @param ticks The number of ticks that were run before the frame.
+	 * @param skipped The number of ticks that were skipped before the frame.
+	 * @param isMissed Whether or not the frame missed it's deadline.
+	 */
+	public void recordFrame(int ticks, int skipped, boolean isMissed) {
+		frameCount.incrementAndGet();
+		if(isMissed) {
+			missedFrames.incrementAndGet();
+		}
+		if(skipped > 0) {
+			skippedTicks.addAndGet(skipped);
+		}
+
+		int behind = Math.max(ticks - 1, 0) + skipped;
+		ticksBehind.set(behind);
+		int most = maxTicksBehind.get();
+		while(behind > most && !maxTicksBehind.compareAndSet(most, behind)) {
+			most = maxTicksBehind.get();
+		}
+	}
+
+	/**
+	 * Gets the histogram of tick durations.
+	 * @return The histogram.
+	 */
+	public LatencyHistogram getTickTimes() {
+		return tickTimes;
+	}
+
+	/**
+	 * Gets the histogram of render durations.
+	 * @return The histogram.
+	 */
+	public LatencyHistogram getRenderTimes() {
+		return renderTimes;
+	}
+
+	/**
+	 * Gets the histogram of BoardPanel paint durations.
+	 * @return The histogram.
+	 */
+	public LatencyHistogram getBoardPaintTimes() {
+		return boardPaintTimes;
+	}
+
+	/**
+	 * Gets the histogram of SidePanel paint durations.
+	 * @return The histogram.
+	 */
+	public LatencyHistogram getSidePaintTimes() {
+		return sidePaintTimes;
+	}
+
+	/**
+	 * Gets the histogram of input latencies.
+	 * @return The histogram.
+	 */
+	public LatencyHistogram getInputLatencies() {
+		return inputLatencies;
+	}
+
+	@Override
+	public long getFrameCount() {
+		return frameCount.get();
+	}
+
+	@Override
+	public long getMissedFrames() {
+		return missedFrames.get();
+	}
+
+	@Override
+	public int getTicksBehind() {
+		return ticksBehind.get();
+	}
+
+	@Override
+	public int getMaxTicksBehind() {
+		return maxTicksBehind.get();
+	}
+
+	@Override
+	public long getSkippedTicks() {
+		return skippedTicks.get();
+	}
+
+	@Override
+	public void reset() {
+		tickTimes.reset();
+		renderTimes.reset();
+		boardPaintTimes.reset();
+		sidePaintTimes.reset();
+		inputLatencies.reset();
+		frameCount.set(0L);
+		missedFrames.set(0L);
+		ticksBehind.set(0);
+		maxTicksBehind.set(0);
+		skippedTicks.set(0L);
+	}
+
+	/**
+	 * Gets the name that a histogram is registered under.
+	 * @param name The name of the part of the game loop that it times.
+	 * @return The object name.
+	 * @throws JMException If the name isn't valid.
+	 */
+	private static ObjectName getHistogramName(String name) throws JMException {
+		return new ObjectName(DOMAIN + ":type=LatencyHistogram,name=" + name);
+	}
+
+}
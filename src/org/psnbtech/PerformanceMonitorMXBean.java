@@ -0,0 +1,52 @@
+package org.psnbtech;
+
+/**
+ * The {@code PerformanceMonitorMXBean} interface is the management interface of
+ * the {@link PerformanceMonitor}, which lets how well the game loop is keeping
+ * up be watched from a JMX console such as JConsole or VisualVM. The durations
+ * of each part of the loop are published as their own {@link LatencyHistogramMXBean}s.
+ * @author Brendan Jones
+ *
+ */
+public interface PerformanceMonitorMXBean {
+
+	/**
+	 * Gets the number of frames that have been drawn.
+	 * @return The frame count.
+	 */
+	public long getFrameCount();
+
+	/**
+	 * Gets the number of frames that finished after their deadline had already
+	 * passed, and so were shown late.
+	 * @return The missed frame count.
+	 */
+	public long getMissedFrames();
+
+	/**
+	 * Gets how many ticks the game loop was behind before the last frame, which
+	 * is the number of ticks it had to run to catch up on top of the one it was
+	 * due to run.
+	 * @return The number of ticks behind.
+	 */
+	public int getTicksBehind();
+
+	/**
+	 * Gets the most ticks that the game loop has been behind before a frame.
+	 * @return The most ticks behind.
+	 */
+	public int getMaxTicksBehind();
+
+	/**
+	 * Gets the number of ticks that were skipped because the game loop fell too
+	 * far behind to catch up.
+	 * @return The skipped tick count.
+	 */
+	public long getSkippedTicks();
+
+	/**
+	 * Clears every count, and every histogram.
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,64 @@
+package org.psnbtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code PieceLockEvent} class is the Flight Recorder event that is emitted
+ * whenever a piece is locked into the board. It's duration is the time taken to
+ * add the piece to the board.
+ * @author Brendan Jones
+ *
+ */
+@Name("org.psnbtech.PieceLock")
+@Label("Piece Lock")
+@Category("Tetris")
+@Description("A piece being locked into the board")
+@StackTrace(false)
+class PieceLockEvent extends Event {
+
+	/**
+	 * The type of this event, which knows whether or not it's being recorded.
+	 */
+	private static final EventType TYPE = EventType.getEventType(PieceLockEvent.class);
+
+	/**
+	 * The type of the piece.
+	 */
+	@Label("Piece Type")
+	String pieceType;
+
+	/**
+	 * The rotation of the piece.
+	 */
+	@Label("Rotation")
+	int rotation;
+
+	/**
+	 * The column of the piece.
+	 */
+	@Label("Column")
+	int col;
+
+	/**
+	 * The row of the piece.
+	 */
+	@Label("Row")
+	int row;
+
+	/**
+	 * Checks to see whether or not this event is being recorded. The engine only
+	 * creates the event when it is, so nothing is allocated on every tick when
+	 * nothing is being recorded.
+	 * @return Whether or not the event is enabled.
+	 */
+	static boolean isRecording() {
+		return TYPE.isEnabled();
+	}
+
+}
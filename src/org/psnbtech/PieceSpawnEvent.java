@@ -0,0 +1,75 @@
+package org.psnbtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code PieceSpawnEvent} class is the Flight Recorder event that is emitted
+ * whenever a new piece is spawned at the top of the board.
+ * @author Brendan Jones
+ *
+ */
+@Name("org.psnbtech.PieceSpawn")
+@Label("Piece Spawn")
+@Category("Tetris")
+@Description("A new piece spawning at the top of the board")
+@StackTrace(false)
+class PieceSpawnEvent extends Event {
+
+	/**
+	 * The type of this event, which knows whether or not it's being recorded.
+	 */
+	private static final EventType TYPE = EventType.getEventType(PieceSpawnEvent.class);
+
+	/**
+	 * The number of pieces that have been spawned, including this one.
+	 */
+	@Label("Piece Number")
+	int pieceNumber;
+
+	/**
+	 * The type of the piece.
+	 */
+	@Label("Piece Type")
+	String pieceType;
+
+	/**
+	 * The type of the piece that will be spawned next.
+	 */
+	@Label("Next Piece Type")
+	String nextType;
+
+	/**
+	 * The column the piece spawned in.
+	 */
+	@Label("Column")
+	int col;
+
+	/**
+	 * The row the piece spawned on.
+	 */
+	@Label("Row")
+	int row;
+
+	/**
+	 * Whether or not the piece had no room to spawn, which ends the game.
+	 */
+	@Label("Game Over")
+	boolean isGameOver;
+
+	/**
+	 * Checks to see whether or not this event is being recorded. The engine only
+	 * creates the event when it is, so nothing is allocated on every tick when
+	 * nothing is being recorded.
+	 * @return Whether or not the event is enabled.
+	 */
+	static boolean isRecording() {
+		return TYPE.isEnabled();
+	}
+
+}
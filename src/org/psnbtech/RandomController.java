@@ -0,0 +1,49 @@
+package org.psnbtech;
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code RandomController} class plays each piece by rotating it and moving
+ * it sideways a random amount before dropping it. This makes for short games
+ * that are useful as a baseline for measuring the speed of the engine.
+ * @author Brendan Jones
+ *
+ */
+public class RandomController implements Controller {
+
+	/**
+	 * The random number generator used to pick moves.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * Creates a new RandomController.
+	 * @param random The random number generator used to pick moves.
+	 */
+	public RandomController(SplittableRandom random) {
+		this.random = random;
+	}
+
+	@Override
+	public void control(GameEngine engine) {
+		int rotations = random.nextInt(4);
+		for(int i = 0; i < rotations; i++) {
+			engine.rotateClockwise();
+		}
+
+		/*
+		 * Pick a column offset between -5 and 4. Moves that run into the wall or
+		 * another piece are simply ignored by the engine.
+		 */
+		int shift = random.nextInt(Board.COL_COUNT) - (Board.COL_COUNT >> 1);
+		for(int i = 0; i < shift; i++) {
+			engine.moveRight();
+		}
+		for(int i = 0; i > shift; i--) {
+			engine.moveLeft();
+		}
+
+		engine.hardDrop();
+	}
+
+}
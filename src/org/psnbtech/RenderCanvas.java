@@ -0,0 +1,175 @@
+package org.psnbtech;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+/**
+ * The {@code RenderCanvas} class is used in place of the BoardPanel and SidePanel
+ * when the game is running in active rendering mode. Rather than asking Swing to
+ * repaint the panels at some point in the future, the game loop draws both of them
+ * straight into the canvas's back buffer and presents it as soon as it's done.
+ * @author Brendan Jones
+ *
+ */
+public class RenderCanvas extends Canvas {
+
+	/**
+	 * The Serial Version UID.
+	 */
+	private static final long serialVersionUID = -2137795467815440378L;
+
+	/**
+	 * The number of buffers to render with.
+	 */
+	private static final int BUFFER_COUNT = 2;
+
+	/**
+	 * The BoardPanel that draws the board.
+	 */
+	private BoardPanel board;
+
+	/**
+	 * The SidePanel that draws the side panel.
+	 */
+	private SidePanel side;
+
+	/**
+	 * The buffer that snapshots of the game are read from.
+	 */
+	private SnapshotBuffer snapshots;
+
+	/**
+	 * The task that is run when the canvas needs to be drawn again.
+	 */
+	private Runnable redrawTask;
+
+	/**
+	 * Creates a new RenderCanvas.
+	 * @param board The BoardPanel to draw on the left.
+	 * @param side The SidePanel to draw on the right.
+	 * @param snapshots The buffer to read snapshots of the game from. The canvas
+	 * becomes the only reader of this buffer.
+	 * @param redrawTask The task to run when the window system asks for the canvas
+	 * to be painted, such as when it's uncovered. This should get the game loop to
+	 * draw another frame, since the canvas is only ever drawn by the game loop.
+	 */
+	public RenderCanvas(BoardPanel board, SidePanel side, SnapshotBuffer snapshots, Runnable redrawTask) {
+		this.board = board;
+		this.side = side;
+		this.snapshots = snapshots;
+		this.redrawTask = redrawTask;
+
+		/*
+		 * The panels aren't added to the window in this mode, so they have to be
+		 * given their sizes by hand.
+		 */
+		board.setSize(board.getPreferredSize());
+		side.setSize(side.getPreferredSize());
+
+		setPreferredSize(new Dimension(BoardPanel.PANEL_WIDTH + SidePanel.PANEL_WIDTH, BoardPanel.PANEL_HEIGHT));
+		setBackground(Color.BLACK);
+
+		//The window handles the key presses.
+		setFocusable(false);
+	}
+
+	/**
+	 * Called on the event dispatch thread when the window system asks for the
+	 * canvas to be painted. Only the game loop draws into the canvas, so rather
+	 * than painting anything here, the game loop is asked to draw another frame.
+	 * This is what gets the canvas drawn again when it's uncovered while the game
+	 * loop is asleep.
+	 * @param g The graphics object, which isn't used.
+	 */
+	@Override
+	public void paint(Graphics g) {
+		redrawTask.run();
+	}
+
+	/**
+	 * Called instead of paint when the canvas is repainted. This is overridden so
+	 * that the canvas isn't cleared first, which would flicker until the game loop
+	 * draws the next frame.
+	 * @param g The graphics object, which isn't used.
+	 */
+	@Override
+	public void update(Graphics g) {
+		paint(g);
+	}
+
+	/**
+	 * Draws a frame into the back buffer and presents it. This should be called
+	 * from the game loop once the canvas is being displayed.
+	 * @param alpha How far through the current tick we are, from 0 to 1. This is
+	 * used to draw the falling piece smoothly between rows.
+	 */
+	public void render(float alpha) {
+		/*
+		 * The buffer strategy can only be created once the canvas is displayable,
+		 * so it's created the first time that we're asked to render.
+		 */
+		BufferStrategy strategy = getBufferStrategy();
+		if(strategy == null) {
+			if(!isDisplayable()) {
+				return;
+			}
+			createBufferStrategy(BUFFER_COUNT);
+			strategy = getBufferStrategy();
+		}
+
+		//Pick up the newest snapshot. The whole frame is drawn, so it's changes aren't needed.
+		FrameSnapshot frame = snapshots.acquire();
+		if(frame != null) {
+			board.setFrame(frame);
+			side.setFrame(frame);
+		}
+		side.updateOverlay();
+
+		PaintEvent event = null;
+		if(PaintEvent.isRecording()) {
+			event = new PaintEvent();
+			event.begin();
+		}
+		
+		/*
+		 * The contents of the buffers can be lost at any time (when the display mode
+		 * changes, for example), so keep drawing until a frame makes it all the way
+		 * to the screen intact.
+		 */
+		do {
+			do {
+				Graphics g = strategy.getDrawGraphics();
+				try {
+					/*
+					 * Each panel fills in it's own background and draws into it's own
+					 * area. Both panels leave the graphics object as they found it, so a
+					 * translate is enough to move between them and saves creating a new
+					 * graphics object for each one.
+					 */
+					board.render(g, alpha);
+					g.translate(BoardPanel.PANEL_WIDTH, 0);
+					side.render(g);
+				} finally {
+					g.dispose();
+				}
+			} while(strategy.contentsRestored());
+			strategy.show();
+		} while(strategy.contentsLost());
+
+		//Flush the frame out to the display rather than letting the window system queue it.
+		Toolkit.getDefaultToolkit().sync();
+		board.recordInputLatency();
+		
+		if(event != null) {
+			event.panel = "Canvas";
+			event.width = getWidth();
+			event.height = getHeight();
+			event.commit();
+		}
+	}
+
+}
@@ -4,6 +4,10 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 
 import javax.swing.JPanel;
 
@@ -20,6 +24,11 @@ public class SidePanel extends JPanel {
 	 */
 	private static final long serialVersionUID = 2181495598854992747L;
 
+	/**
+	 * The total width of the panel.
+	 */
+	public static final int PANEL_WIDTH = 200;
+	
 	/**
 	 * The dimensions of each tile on the next piece preview.
 	 */
@@ -92,71 +101,307 @@ public class SidePanel extends JPanel {
 	private static final Color DRAW_COLOR = new Color(128, 192, 128);
 	
 	/**
-	 * The Tetris instance.
+	 * The label drawn in front of the level.
+	 */
+	private static final char[] LEVEL_LABEL = "Level: ".toCharArray();
+	
+	/**
+	 * The label drawn in front of the score.
+	 */
+	private static final char[] SCORE_LABEL = "Score: ".toCharArray();
+	
+	/**
+	 * The y coordinate of the top of the performance overlay, which is drawn over
+	 * the controls category.
+	 */
+	private static final int OVERLAY_TOP = CONTROLS_INSET - TEXT_STRIDE + 5;
+	
+	/**
+	 * How often the numbers on the performance overlay are updated, in nanoseconds.
+	 * They're averaged over this long so that they can actually be read.
+	 */
+	public static final long OVERLAY_INTERVAL = 500000000L;
+	
+	/**
+	 * The number of bytes in a megabyte.
+	 */
+	private static final long BYTES_PER_MB = 1024L * 1024L;
+	
+	/**
+	 * The snapshot of the game that is being displayed.
+	 */
+	private FrameSnapshot frame;
+	
+	/**
+	 * The histogram that the time taken to paint the panel is recorded into, or null.
+	 */
+	private LatencyHistogram paintTimes;
+	
+	/**
+	 * The monitor that the performance overlay reads from, or null.
+	 */
+	private PerformanceMonitor monitor;
+	
+	/**
+	 * Whether or not the performance overlay should be shown. This is toggled on
+	 * the event dispatch thread, but may be read by the game loop.
+	 */
+	private volatile boolean isOverlayVisible;
+	
+	/**
+	 * The lines of text on the performance overlay, or null if it isn't being shown.
+	 */
+	private String[] overlayLines;
+	
+	/**
+	 * The time that the performance overlay was last updated.
+	 */
+	private long overlayUpdateTime;
+	
+	/**
+	 * The number of frames that had been drawn when the overlay was last updated.
+	 */
+	private long overlayFrameCount;
+	
+	/**
+	 * The pre-rendered tile images for the next piece preview.
+	 */
+	private TileSprites sprites;
+	
+	/**
+	 * The buffer that the level and score lines are built in. These change
+	 * often, so they're drawn from here rather than building a new string
+	 * every frame.
+	 */
+	private char[] lineBuffer;
+	
+	/**
+	 * The pre-rendered headings, controls and preview box.
 	 */
-	private Tetris tetris;
+	private BufferedImage staticLayer;
 	
 	/**
-	 * Creates a new SidePanel and sets it's display properties.
-	 * @param tetris The Tetris instance to use.
+	 * Creates a new SidePanel and sets it's display properties. Nothing is
+	 * displayed until it's given a snapshot to display.
 	 */
-	public SidePanel(Tetris tetris) {
-		this.tetris = tetris;
+	public SidePanel() {
+		this.sprites = new TileSprites(TILE_SIZE, SHADE_WIDTH);
+		this.lineBuffer = new char[32];
 		
-		setPreferredSize(new Dimension(200, BoardPanel.PANEL_HEIGHT));
+		setPreferredSize(new Dimension(PANEL_WIDTH, BoardPanel.PANEL_HEIGHT));
 		setBackground(Color.BLACK);
 	}
 	
-	@Override
-	public void paintComponent(Graphics g) {
-		super.paintComponent(g);
+	/**
+	 * Sets the snapshot of the game to display. This doesn't repaint anything by
+	 * itself, so it should be followed by a call to {@code repaintChanges}.
+	 * @param frame The snapshot.
+	 */
+	public void setFrame(FrameSnapshot frame) {
+		this.frame = frame;
+	}
+	
+	/**
+	 * Sets the histogram that the time taken by Swing to paint the panel is recorded
+	 * into. Frames drawn with {@code render} aren't recorded.
+	 * @param paintTimes The histogram, or null to stop recording.
+	 */
+	public void setPaintTimes(LatencyHistogram paintTimes) {
+		this.paintTimes = paintTimes;
+	}
+	
+	/**
+	 * Sets the monitor that the performance overlay shows the numbers of.
+	 * @param monitor The monitor, or null if there's nothing to show.
+	 */
+	public void setMonitor(PerformanceMonitor monitor) {
+		this.monitor = monitor;
+	}
+	
+	/**
+	 * Shows or hides the performance overlay. The change shows up the next time that
+	 * {@code updateOverlay} is called.
+	 * @param visible Whether or not the overlay should be shown.
+	 */
+	public void setOverlayVisible(boolean visible) {
+		this.isOverlayVisible = visible;
+	}
+	
+	/**
+	 * Checks to see whether or not the performance overlay is being shown.
+	 * @return Whether or not the overlay is visible.
+	 */
+	public boolean isOverlayVisible() {
+		return isOverlayVisible;
+	}
+	
+	/**
+	 * Updates the numbers on the performance overlay if it's being shown and they're
+	 * due to be updated, and repaints it if anything changed. This should be called
+	 * every frame, from the thread that draws the panel.
+	 */
+	public void updateOverlay() {
+		if(!isOverlayVisible || monitor == null) {
+			if(overlayLines != null) {
+				this.overlayLines = null;
+				repaintOverlay();
+			}
+			return;
+		}
 		
-		//Set the color for drawing.
-		g.setColor(DRAW_COLOR);
+		long now = System.nanoTime();
+		if(overlayLines != null && now - overlayUpdateTime < OVERLAY_INTERVAL) {
+			return;
+		}
 		
 		/*
-		 * This variable stores the current y coordinate of the string.
-		 * This way we can re-order, add, or remove new strings if necessary
-		 * without needing to change the other strings.
+		 * The frame rate is averaged over the time since the last update, which isn't
+		 * known the first time around.
 		 */
-		int offset;
+		long frames = monitor.getFrameCount();
+		String fps = "-";
+		if(overlayLines != null) {
+			fps = String.format("%.1f", (frames - overlayFrameCount) * 1e9 / (now - overlayUpdateTime));
+		}
+		
+		LatencyHistogram ticks = monitor.getTickTimes();
+		LatencyHistogram input = monitor.getInputLatencies();
+		Runtime runtime = Runtime.getRuntime();
+		long heapUsed = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MB;
+		this.overlayLines = new String[] {
+			"FPS: " + fps,
+			String.format("Tick p50: %.2f ms", ticks.getP50Micros() / 1e3),
+			String.format("Tick p99: %.2f ms", ticks.getP99Micros() / 1e3),
+			String.format("Input p50: %.1f ms", input.getP50Micros() / 1e3),
+			String.format("Input p99: %.1f ms", input.getP99Micros() / 1e3),
+			"Heap: " + heapUsed + " / " + runtime.maxMemory() / BYTES_PER_MB + " MB"
+		};
+		this.overlayUpdateTime = now;
+		this.overlayFrameCount = frames;
+		repaintOverlay();
+	}
+	
+	/**
+	 * Repaints the area covered by the performance overlay.
+	 */
+	private void repaintOverlay() {
+		repaint(0, OVERLAY_TOP, getWidth(), getHeight() - OVERLAY_TOP);
+	}
+	
+	/**
+	 * Repaints the parts of the panel that have changed.
+	 * @param dirty The changed parts of the game.
+	 */
+	public void repaintChanges(DirtyRegion dirty) {
+		if(dirty.isAll()) {
+			repaint();
+			return;
+		}
+		
+		int fields = dirty.getFields();
+		if((fields & DirtyRegion.FIELD_LEVEL) != 0) {
+			repaintLine(STATS_INSET + TEXT_STRIDE);
+		}
+		if((fields & DirtyRegion.FIELD_SCORE) != 0) {
+			repaintLine(STATS_INSET + TEXT_STRIDE * 2);
+		}
+		if((fields & DirtyRegion.FIELD_NEXT) != 0) {
+			repaint(SQUARE_CENTER_X - SQUARE_SIZE, SQUARE_CENTER_Y - SQUARE_SIZE, SQUARE_SIZE * 2 + 1, SQUARE_SIZE * 2 + 1);
+		}
+	}
+	
+	/**
+	 * Repaints a single line of text.
+	 * @param baseline The y coordinate of the line's baseline.
+	 */
+	private void repaintLine(int baseline) {
+		repaint(0, baseline - TEXT_STRIDE + 5, getWidth(), TEXT_STRIDE);
+	}
+	
+	@Override
+	public void paintComponent(Graphics g) {
+		PaintEvent event = null;
+		if(PaintEvent.isRecording()) {
+			event = new PaintEvent();
+			event.begin();
+		}
+		long start = System.nanoTime();
+		
+		//The background is filled in by render, so the panel isn't cleared first.
+		render(g);
+		if(paintTimes != null) {
+			paintTimes.record(System.nanoTime() - start);
+		}
+		
+		//Only look up the area that was painted if the event is being recorded.
+		if(event != null) {
+			event.end();
+			if(event.shouldCommit()) {
+				Rectangle clip = g.getClipBounds();
+				event.panel = "Side";
+				if(clip != null) {
+					event.x = clip.x;
+					event.y = clip.y;
+					event.width = clip.width;
+					event.height = clip.height;
+				}
+				event.commit();
+			}
+		}
+	}
+	
+	/**
+	 * Draws the whole panel, including it's background, onto a graphics object.
+	 * This is used both when Swing paints the panel and when the game is drawing
+	 * the frame itself.
+	 * @param g The graphics object.
+	 */
+	public void render(Graphics g) {
+		validateLayer();
+		g.setColor(getBackground());
+		g.fillRect(0, 0, PANEL_WIDTH, BoardPanel.PANEL_HEIGHT);
 		
 		/*
-		 * Draw the "Stats" category.
+		 * Draw the headings, controls and preview box, none of which ever change.
 		 */
-		g.setFont(LARGE_FONT);
-		g.drawString("Stats", SMALL_INSET, offset = STATS_INSET);
-		g.setFont(SMALL_FONT);
-		g.drawString("Level: " + tetris.getLevel(), LARGE_INSET, offset += TEXT_STRIDE);
-		g.drawString("Score: " + tetris.getScore(), LARGE_INSET, offset += TEXT_STRIDE);
+		g.drawImage(staticLayer, 0, 0, null);
 		
 		/*
-		 * Draw the "Controls" category.
+		 * Draw the performance overlay over the controls if it's being shown.
 		 */
-		g.setFont(LARGE_FONT);
-		g.drawString("Controls", SMALL_INSET, offset = CONTROLS_INSET);
-		g.setFont(SMALL_FONT);
-		g.drawString("A - Move Left", LARGE_INSET, offset += TEXT_STRIDE);
-		g.drawString("D - Move Right", LARGE_INSET, offset += TEXT_STRIDE);
-		g.drawString("Q - Rotate Anticlockwise", LARGE_INSET, offset += TEXT_STRIDE);
-		g.drawString("E - Rotate Clockwise", LARGE_INSET, offset += TEXT_STRIDE);
-		g.drawString("S - Drop", LARGE_INSET, offset += TEXT_STRIDE);
-		g.drawString("P - Pause Game", LARGE_INSET, offset += TEXT_STRIDE);
+		String[] lines = overlayLines;
+		if(lines != null) {
+			g.setColor(getBackground());
+			g.fillRect(0, OVERLAY_TOP, PANEL_WIDTH, BoardPanel.PANEL_HEIGHT - OVERLAY_TOP);
+			g.setColor(DRAW_COLOR);
+			g.setFont(LARGE_FONT);
+			g.drawString("Performance", SMALL_INSET, CONTROLS_INSET);
+			g.setFont(SMALL_FONT);
+			for(int i = 0; i < lines.length; i++) {
+				g.drawString(lines[i], LARGE_INSET, CONTROLS_INSET + TEXT_STRIDE * (i + 1));
+			}
+		}
+		
+		//Nothing else can be drawn until there's a snapshot to draw.
+		if(frame == null) {
+			return;
+		}
 		
 		/*
-		 * Draw the next piece preview box.
+		 * Draw the level and score under the "Stats" category.
 		 */
-		g.setFont(LARGE_FONT);
-		g.drawString("Next Piece:", SMALL_INSET, 70);
-		g.drawRect(SQUARE_CENTER_X - SQUARE_SIZE, SQUARE_CENTER_Y - SQUARE_SIZE, SQUARE_SIZE * 2, SQUARE_SIZE * 2);
+		g.setColor(DRAW_COLOR);
+		g.setFont(SMALL_FONT);
+		drawValue(g, LEVEL_LABEL, frame.getLevel(), LARGE_INSET, STATS_INSET + TEXT_STRIDE);
+		drawValue(g, SCORE_LABEL, frame.getScore(), LARGE_INSET, STATS_INSET + TEXT_STRIDE * 2);
 		
 		/*
 		 * Draw a preview of the next piece that will be spawned. The code is pretty much
 		 * identical to the drawing code on the board, just smaller and centered, rather
 		 * than constrained to a grid.
 		 */
-		TileType type = tetris.getNextPieceType();
-		if(!tetris.isGameOver() && type != null) {
+		TileType type = frame.getNextPieceType();
+		if(!frame.isGameOver() && type != null) {
 			/*
 			 * Get the size properties of the current piece.
 			 */
@@ -183,7 +428,7 @@ public class SidePanel extends JPanel {
 			for(int row = 0; row < dimension; row++) {
 				for(int col = 0; col < dimension; col++) {
 					if(type.isTile(col, row, 0)) {
-						drawTile(type, startX + ((col - left) * TILE_SIZE), startY + ((row - top) * TILE_SIZE), g);
+						sprites.drawTile(type, startX + ((col - left) * TILE_SIZE), startY + ((row - top) * TILE_SIZE), g);
 					}
 				}
 			}
@@ -191,36 +436,84 @@ public class SidePanel extends JPanel {
 	}
 	
 	/**
-	 * Draws a tile onto the preview window.
-	 * @param type The type of tile to draw.
-	 * @param x The x coordinate of the tile.
-	 * @param y The y coordinate of the tile.
-	 * @param g The graphics object.
+	 * Renders the static layer if it hasn't been rendered yet, or if the size of
+	 * the panel has changed since it was.
 	 */
-	private void drawTile(TileType type, int x, int y, Graphics g) {
-		/*
-		 * Fill the entire tile with the base color.
-		 */
-		g.setColor(type.getBaseColor());
-		g.fillRect(x, y, TILE_SIZE, TILE_SIZE);
+	private void validateLayer() {
+		int width = Math.max(getWidth(), 1);
+		int height = Math.max(getHeight(), 1);
+		if(staticLayer != null && staticLayer.getWidth() == width && staticLayer.getHeight() == height) {
+			return;
+		}
 		
-		/*
-		 * Fill the bottom and right edges of the tile with the dark shading color.
-		 */
-		g.setColor(type.getDarkColor());
-		g.fillRect(x, y + TILE_SIZE - SHADE_WIDTH, TILE_SIZE, SHADE_WIDTH);
-		g.fillRect(x + TILE_SIZE - SHADE_WIDTH, y, SHADE_WIDTH, TILE_SIZE);
+		this.staticLayer = Images.createCompatibleImage(width, height, Transparency.BITMASK);
+		Graphics2D g = staticLayer.createGraphics();
+		try {
+			//Set the color for drawing.
+			g.setColor(DRAW_COLOR);
+			
+			/*
+			 * This variable stores the current y coordinate of the string.
+			 * This way we can re-order, add, or remove new strings if necessary
+			 * without needing to change the other strings.
+			 */
+			int offset;
+			
+			/*
+			 * Draw the "Stats" category. The level and score are drawn
+			 * underneath it every frame.
+			 */
+			g.setFont(LARGE_FONT);
+			g.drawString("Stats", SMALL_INSET, offset = STATS_INSET);
+			
+			/*
+			 * Draw the "Controls" category.
+			 */
+			g.setFont(LARGE_FONT);
+			g.drawString("Controls", SMALL_INSET, offset = CONTROLS_INSET);
+			g.setFont(SMALL_FONT);
+			g.drawString("A - Move Left", LARGE_INSET, offset += TEXT_STRIDE);
+			g.drawString("D - Move Right", LARGE_INSET, offset += TEXT_STRIDE);
+			g.drawString("Q - Rotate Anticlockwise", LARGE_INSET, offset += TEXT_STRIDE);
+			g.drawString("E - Rotate Clockwise", LARGE_INSET, offset += TEXT_STRIDE);
+			g.drawString("S - Drop", LARGE_INSET, offset += TEXT_STRIDE);
+			g.drawString("Space - Hard Drop", LARGE_INSET, offset += TEXT_STRIDE);
+			g.drawString("P - Pause Game", LARGE_INSET, offset += TEXT_STRIDE);
+			
+			/*
+			 * Draw the next piece preview box.
+			 */
+			g.setFont(LARGE_FONT);
+			g.drawString("Next Piece:", SMALL_INSET, 70);
+			g.drawRect(SQUARE_CENTER_X - SQUARE_SIZE, SQUARE_CENTER_Y - SQUARE_SIZE, SQUARE_SIZE * 2, SQUARE_SIZE * 2);
+		} finally {
+			g.dispose();
+		}
+	}
+	
+	/**
+	 * Draws a label followed by a number.
+	 * @param g The graphics object.
+	 * @param label The label.
+	 * @param value The number to draw after the label. Must not be negative.
+	 * @param x The x coordinate of the text.
+	 * @param y The y coordinate of the text's baseline.
+	 */
+	private void drawValue(Graphics g, char[] label, int value, int x, int y) {
+		System.arraycopy(label, 0, lineBuffer, 0, label.length);
 		
-		/*
-		 * Fill the top and left edges with the light shading. We draw a single line
-		 * for each row or column rather than a rectangle so that we can draw a nice
-		 * looking diagonal where the light and dark shading meet.
-		 */
-		g.setColor(type.getLightColor());
-		for(int i = 0; i < SHADE_WIDTH; i++) {
-			g.drawLine(x, y + i, x + TILE_SIZE - i - 1, y + i);
-			g.drawLine(x + i, y, x + i, y + TILE_SIZE - i - 1);
+		//Count the digits, then write them in from the right.
+		int length = label.length + 1;
+		for(int remaining = value / 10; remaining > 0; remaining /= 10) {
+			length++;
 		}
+		int digit = length;
+		do {
+			lineBuffer[--digit] = (char)('0' + value % 10);
+			value /= 10;
+		} while(value > 0);
+		
+		g.drawChars(lineBuffer, 0, length, x, y);
 	}
 	
 }
@@ -0,0 +1,145 @@
+package org.psnbtech;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code SnapshotBuffer} class hands frame snapshots from the game loop to
+ * the renderer without either one ever waiting on the other. It is a triple
+ * buffer: the writer fills the back snapshot, the reader draws the front one,
+ * and the third sits in the middle holding the newest finished snapshot. Both
+ * sides trade their snapshot for the middle one with a single atomic swap.
+ * <p>
+ * Each snapshot carries every change since the last snapshot that the writer
+ * knows was read. When the middle snapshot comes back to the writer unread, the
+ * reader never saw it's changes, so they're carried forward into the snapshots
+ * that follow. The reader can skip any number of snapshots without missing
+ * anything that needs to be redrawn. The time of the oldest input that the
+ * reader hasn't seen is carried forward the same way.
+ * <p>
+ * Only one thread may write and only one thread may read.
+ * @author Brendan Jones
+ *
+ */
+public class SnapshotBuffer {
+
+	/**
+	 * The flag set alongside the middle index when it hasn't been read yet.
+	 */
+	private static final int FRESH = 4;
+
+	/**
+	 * The mask of the middle index.
+	 */
+	private static final int INDEX_MASK = 3;
+
+	/**
+	 * The three snapshots.
+	 */
+	private FrameSnapshot[] snapshots;
+
+	/**
+	 * The index of the middle snapshot, and whether or not it's fresh.
+	 */
+	private AtomicInteger middle;
+
+	/**
+	 * The index of the snapshot being written. Only used by the writer.
+	 */
+	private int back;
+
+	/**
+	 * The changes that the reader may not have seen yet. Only used by the writer.
+	 */
+	private DirtyRegion unseen;
+
+	/**
+	 * Whether or not there is input that the reader may not have seen yet. Only
+	 * used by the writer.
+	 */
+	private boolean hasUnseenInput;
+
+	/**
+	 * The time that the oldest input that the reader may not have seen yet was
+	 * issued. Only used by the writer.
+	 */
+	private long unseenInputTime;
+
+	/**
+	 * The index of the snapshot being read. Only used by the reader.
+	 */
+	private int front;
+
+	/**
+	 * Creates a new SnapshotBuffer.
+	 */
+	public SnapshotBuffer() {
+		this.snapshots = new FrameSnapshot[] { new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot() };
+		this.front = 0;
+		this.middle = new AtomicInteger(1);
+		this.back = 2;
+		this.unseen = new DirtyRegion();
+	}
+
+	/**
+	 * Gets the snapshot to write the next frame into. Must only be called by the writer.
+	 * @return The back snapshot.
+	 */
+	public FrameSnapshot getBack() {
+		return snapshots[back];
+	}
+
+	/**
+	 * Publishes the back snapshot as the newest frame, and takes the old middle
+	 * snapshot as the new back one. Must only be called by the writer.
+	 * @param changes The changes since the last snapshot was published.
+	 */
+	public void publish(DirtyRegion changes) {
+		FrameSnapshot snapshot = snapshots[back];
+		unseen.merge(changes);
+		snapshot.getDirty().copyFrom(unseen);
+
+		/*
+		 * Any input that hasn't been seen yet is older than this snapshot's. If the
+		 * last snapshot has already been picked up, the reader has seen all of it.
+		 */
+		boolean hasInput = snapshot.hasInput();
+		long inputTime = snapshot.getInputTime();
+		if((middle.get() & FRESH) == 0) {
+			this.hasUnseenInput = false;
+		}
+		if(!hasUnseenInput && hasInput) {
+			this.hasUnseenInput = true;
+			this.unseenInputTime = inputTime;
+		}
+		snapshot.setInput(hasUnseenInput, unseenInputTime);
+
+		int previous = middle.getAndSet(back | FRESH);
+		this.back = previous & INDEX_MASK;
+
+		/*
+		 * If the old middle snapshot had been picked up, the reader has seen everything
+		 * up to the snapshot before this one, so only this one's changes may still be
+		 * unseen. Otherwise they all are, and they're kept for the next snapshot.
+		 */
+		if((previous & FRESH) == 0) {
+			unseen.copyFrom(changes);
+			this.hasUnseenInput = hasInput;
+			this.unseenInputTime = inputTime;
+		}
+	}
+
+	/**
+	 * Takes the newest snapshot, if one has been published since the last call.
+	 * Must only be called by the reader. The snapshot stays valid until the next
+	 * call that returns a new one.
+	 * @return The newest snapshot, or null if nothing new has been published.
+	 */
+	public FrameSnapshot acquire() {
+		if((middle.get() & FRESH) == 0) {
+			return null;
+		}
+		this.front = middle.getAndSet(front) & INDEX_MASK;
+		return snapshots[front];
+	}
+
+}
@@ -1,15 +1,25 @@
 package org.psnbtech;
 
 import java.awt.BorderLayout;
+import java.awt.DisplayMode;
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.Random;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
+import javax.management.JMException;
 import javax.swing.JFrame;
 
 /**
- * The {@code Tetris} class is responsible for handling much of the game logic and
- * reading user input.
+ * The {@code Tetris} class is responsible for displaying the game window, reading
+ * user input and passing it on to the {@link GameEngine}, and running the game loop.
  * @author Brendan Jones
  *
  */
@@ -21,14 +31,28 @@ public class Tetris extends JFrame {
 	private static final long serialVersionUID = -4722429764792514382L;
 
 	/**
-	 * The number of milliseconds per frame.
+	 * The frame rate that means frames are drawn as fast as possible.
 	 */
-	private static final long FRAME_TIME = 1000L / 50L;
-	
+	private static final int UNCAPPED = 0;
+
+	/**
+	 * The frame rate used for vsync when the display doesn't report it's refresh rate.
+	 */
+	private static final int DEFAULT_REFRESH_RATE = 60;
+
+	/**
+	 * How far behind the game can fall before ticks are skipped, in nanoseconds. If
+	 * the game falls further behind than this (if the computer was suspended, for
+	 * example), the missed ticks are skipped rather than played back all at once.
+	 * This is raised to two frames at low frame rates, so that the ticks which
+	 * normally come due between frames are never skipped.
+	 */
+	private static final long MAX_CATCH_UP_NANOS = 250000000L;
+
 	/**
-	 * The number of pieces that exist.
+	 * The GameEngine instance that runs the game logic.
 	 */
-	private static final int TYPE_COUNT = TileType.values().length;
+	private GameEngine engine;
 		
 	/**
 	 * The BoardPanel instance.
@@ -41,83 +65,61 @@ public class Tetris extends JFrame {
 	private SidePanel side;
 	
 	/**
-	 * Whether or not the game is paused.
-	 */
-	private boolean isPaused;
-	
-	/**
-	 * Whether or not we've played a game yet. This is set to true
-	 * initially and then set to false when the game starts.
-	 */
-	private boolean isNewGame;
-	
-	/**
-	 * Whether or not the game is over.
+	 * The RenderCanvas instance, when running in active rendering mode. This is
+	 * null when Swing is left to repaint the panels.
 	 */
-	private boolean isGameOver;
+	private RenderCanvas canvas;
 	
 	/**
-	 * The current level we're on.
+	 * The task that picks up the newest snapshot on the event dispatch thread and
+	 * repaints whatever has changed.
 	 */
-	private int level;
+	private Runnable frameUpdater;
 	
 	/**
-	 * The current score.
+	 * Whether or not the frame updater is waiting to run, so that it's never queued
+	 * more than once.
 	 */
-	private int score;
+	private AtomicBoolean isFramePending;
 	
 	/**
-	 * The random number generator. This is used to
-	 * spit out pieces randomly.
+	 * The number of frames to draw per second, or {@code UNCAPPED}.
 	 */
-	private Random random;
+	private int frameRate;
 	
 	/**
-	 * The clock that handles the update logic.
-	 */
-	private Clock logicTimer;
-				
-	/**
-	 * The current type of tile.
+	 * The thread running the game loop, which is woken up by input while the game
+	 * is idle. This is null until the game loop starts.
 	 */
-	private TileType currentType;
+	private volatile Thread loopThread;
 	
 	/**
-	 * The next type of tile.
-	 */
-	private TileType nextType;
-		
-	/**
-	 * The current column of our tile.
+	 * The monitor that records how long each part of the game loop takes.
 	 */
-	private int currentCol;
+	private PerformanceMonitor monitor;
 	
 	/**
-	 * The current row of our tile.
+	 * The autoplayer that plays the game while it's turned on.
 	 */
-	private int currentRow;
+	private AutoPlayer autoPlayer;
 	
 	/**
-	 * The current rotation of our tile.
+	 * Whether or not the autoplayer is playing the game. This is set by the input
+	 * thread and read by the game loop.
 	 */
-	private int currentRotation;
-		
-	/**
-	 * Ensures that a certain amount of time passes after a piece is
-	 * spawned before we can drop it.
-	 */
-	private int dropCooldown;
-	
-	/**
-	 * The speed of the game.
-	 */
-	private float gameSpeed;
+	private volatile boolean isAutoPlaying;
 		
 	/**
 	 * Creates a new Tetris instance. Sets up the window's properties,
 	 * and adds a controller listener.
-	 */
-	private Tetris() {
+	 * @param activeRendering Whether the game loop should draw and present each
+	 * frame itself, rather than asking Swing to repaint the panels.
+	 * @param frameRate The number of frames to draw per second, or {@code UNCAPPED}.
+	 * Swing only repaints when the game changes, so this only applies to active
+	 * rendering, and is otherwise the same as the tick rate.
+	 * @param weights The weights that the autoplayer plays with.
+	 */
+	private Tetris(boolean activeRendering, int frameRate, AutoPlayer.Weights weights) {
 		/*
 		 * Set the basic properties of the window.
 		 */
@@ -127,106 +129,183 @@ public class Tetris extends JFrame {
 		setResizable(false);
 		
 		/*
-		 * Initialize the BoardPanel and SidePanel instances.
+		 * Initialize the GameEngine, and the BoardPanel and SidePanel instances
+		 * that display it.
+		 */
+		this.frameRate = activeRendering ? frameRate : GameEngine.FRAMES_PER_SECOND;
+		this.engine = new GameEngine();
+		this.board = new BoardPanel();
+		this.side = new SidePanel();
+		this.autoPlayer = new AutoPlayer(ForkJoinPool.commonPool(), weights);
+		
+		/*
+		 * Set up the performance monitor and publish it over JMX so that it can be
+		 * watched while the game runs. The game runs just as well without it, so a
+		 * failure to register is only reported.
 		 */
-		this.board = new BoardPanel(this);
-		this.side = new SidePanel(this);
+		this.monitor = new PerformanceMonitor();
+		board.setPaintTimes(monitor.getBoardPaintTimes());
+		board.setInputLatencies(monitor.getInputLatencies());
+		side.setPaintTimes(monitor.getSidePaintTimes());
+		side.setMonitor(monitor);
+		try {
+			monitor.register();
+		} catch(JMException e) {
+			System.err.println("Unable to register the performance monitor: " + e);
+		}
 		
 		/*
-		 * Add the BoardPanel and SidePanel instances to the window.
+		 * Set up the task that hands each new snapshot to the panels. The panels are
+		 * only ever given a new snapshot on the event dispatch thread, which is the
+		 * thread that paints them, so a frame can't change while it's being painted.
 		 */
-		add(board, BorderLayout.CENTER);
-		add(side, BorderLayout.EAST);
+		this.isFramePending = new AtomicBoolean();
+		this.frameUpdater = new Runnable() {
+			
+			@Override
+			public void run() {
+				isFramePending.set(false);
+				FrameSnapshot frame = engine.getSnapshots().acquire();
+				if(frame != null) {
+					board.setFrame(frame);
+					side.setFrame(frame);
+					board.repaintChanges(frame.getDirty());
+					side.repaintChanges(frame.getDirty());
+				}
+				side.updateOverlay();
+			}
+			
+		};
 		
 		/*
-		 * Adds a custom anonymous KeyListener to the frame.
+		 * Add the BoardPanel and SidePanel instances to the window. In active rendering
+		 * mode, they're drawn onto a single canvas instead.
+		 */
+		if(activeRendering) {
+			this.canvas = new RenderCanvas(board, side, engine.getSnapshots(), new Runnable() {
+				
+				@Override
+				public void run() {
+					wake();
+				}
+				
+			});
+			add(canvas, BorderLayout.CENTER);
+		} else {
+			add(board, BorderLayout.CENTER);
+			add(side, BorderLayout.EAST);
+		}
+		
+		/*
+		 * Adds a custom anonymous KeyListener to the frame. Key events arrive on the
+		 * event dispatch thread rather than the game loop's, so they're turned into
+		 * commands for the engine to apply on it's next tick instead of changing the
+		 * game directly.
 		 */
 		addKeyListener(new KeyAdapter() {
 			
+			/**
+			 * Whether or not the hard drop key is being held down.
+			 */
+			private boolean isHardDropHeld;
+			
 			@Override
 			public void keyPressed(KeyEvent e) {
 								
 				switch(e.getKeyCode()) {
 				
 				/*
-				 * Drop - When pressed, we check to see that the game is not
-				 * paused and that there is no drop cooldown, then set the
-				 * logic timer to run at a speed of 25 cycles per second.
+				 * Drop - When pressed, the engine checks to see that the game is not
+				 * paused and that there is no drop cooldown, then speeds up the logic
+				 * timer to 25 cycles per second.
 				 */
 				case KeyEvent.VK_S:
-					if(!isPaused && dropCooldown == 0) {
-						logicTimer.setCyclesPerSecond(25.0f);
-					}
+					submit(Command.SOFT_DROP_START, e);
 					break;
 					
 				/*
-				 * Move Left - When pressed, we check to see that the game is
-				 * not paused and that the position to the left of the current
-				 * position is valid. If so, we decrement the current column by 1.
+				 * Move Left - When pressed, the engine moves the piece one column to
+				 * the left if that position is valid.
 				 */
 				case KeyEvent.VK_A:
-					if(!isPaused && board.isValidAndEmpty(currentType, currentCol - 1, currentRow, currentRotation)) {
-						currentCol--;
-					}
+					submit(Command.MOVE_LEFT, e);
 					break;
 					
 				/*
-				 * Move Right - When pressed, we check to see that the game is
-				 * not paused and that the position to the right of the current
-				 * position is valid. If so, we increment the current column by 1.
+				 * Move Right - When pressed, the engine moves the piece one column to
+				 * the right if that position is valid.
 				 */
 				case KeyEvent.VK_D:
-					if(!isPaused && board.isValidAndEmpty(currentType, currentCol + 1, currentRow, currentRotation)) {
-						currentCol++;
-					}
+					submit(Command.MOVE_RIGHT, e);
 					break;
 					
 				/*
-				 * Rotate Anticlockwise - When pressed, check to see that the game is not paused
-				 * and then attempt to rotate the piece anticlockwise. Because of the size and
-				 * complexity of the rotation code, as well as it's similarity to clockwise
-				 * rotation, the code for rotating the piece is handled in another method.
+				 * Rotate Anticlockwise - When pressed, the engine attempts to rotate the
+				 * piece anticlockwise, moving it away from the edges if necessary.
 				 */
 				case KeyEvent.VK_Q:
-					if(!isPaused) {
-						rotatePiece((currentRotation == 0) ? 3 : currentRotation - 1);
-					}
+					submit(Command.ROTATE_ANTICLOCKWISE, e);
 					break;
 				
 				/*
-			     * Rotate Clockwise - When pressed, check to see that the game is not paused
-				 * and then attempt to rotate the piece clockwise. Because of the size and
-				 * complexity of the rotation code, as well as it's similarity to anticlockwise
-				 * rotation, the code for rotating the piece is handled in another method.
+				 * Rotate Clockwise - When pressed, the engine attempts to rotate the
+				 * piece clockwise, moving it away from the edges if necessary.
 				 */
 				case KeyEvent.VK_E:
-					if(!isPaused) {
-						rotatePiece((currentRotation == 3) ? 0 : currentRotation + 1);
+					submit(Command.ROTATE_CLOCKWISE, e);
+					break;
+					
+				/*
+				 * Hard Drop - When pressed, the engine drops the piece straight onto it's
+				 * landing row and locks it. Holding the key down doesn't drop the pieces
+				 * that follow, so it has to be released first.
+				 */
+				case KeyEvent.VK_SPACE:
+					if(!isHardDropHeld) {
+						isHardDropHeld = true;
+						submit(Command.HARD_DROP, e);
 					}
 					break;
 					
 				/*
-				 * Pause Game - When pressed, check to see that we're currently playing a game.
-				 * If so, toggle the pause variable and update the logic timer to reflect this
-				 * change, otherwise the game will execute a huge number of updates and essentially
-				 * cause an instant game over when we unpause if we stay paused for more than a
-				 * minute or so.
+				 * Pause Game - When pressed, the engine toggles the pause state if we're
+				 * currently playing a game.
 				 */
 				case KeyEvent.VK_P:
-					if(!isGameOver && !isNewGame) {
-						isPaused = !isPaused;
-						logicTimer.setPaused(isPaused);
-					}
+					submit(Command.TOGGLE_PAUSE, e);
 					break;
 				
 				/*
-				 * Start Game - When pressed, check to see that we're in either a game over or new
-				 * game state. If so, reset the game.
+				 * Start Game - When pressed, the engine resets the game if we're in either
+				 * a game over or new game state.
 				 */
 				case KeyEvent.VK_ENTER:
-					if(isGameOver || isNewGame) {
-						resetGame();
+					submit(Command.START, e);
+					break;
+					
+				/*
+				 * Performance Overlay - When pressed, the side panel toggles the overlay
+				 * showing the frame rate, tick time, input latency and heap usage. This
+				 * doesn't involve the engine, so the Swing overlay is updated straight away.
+				 * The game loop is woken up either way, since it draws the canvas and
+				 * sleeps differently while the overlay is shown.
+				 */
+				case KeyEvent.VK_F3:
+					side.setOverlayVisible(!side.isOverlayVisible());
+					if(canvas == null) {
+						side.updateOverlay();
 					}
+					wake();
+					break;
+					
+				/*
+				 * Autoplay - When pressed, the autoplayer starts or stops playing the
+				 * game. The game loop is woken up in case it's asleep on the new game or
+				 * game over screen, since the autoplayer starts a new game by itself.
+				 */
+				case KeyEvent.VK_F2:
+					isAutoPlaying = !isAutoPlaying;
+					wake();
 					break;
 				
 				}
@@ -238,13 +317,19 @@ public class Tetris extends JFrame {
 				switch(e.getKeyCode()) {
 				
 				/*
-				 * Drop - When released, we set the speed of the logic timer
-				 * back to whatever the current game speed is and clear out
-				 * any cycles that might still be elapsed.
+				 * Drop - When released, the engine sets the speed of the logic
+				 * timer back to whatever the current game speed is and clears
+				 * out any cycles that might still be elapsed.
 				 */
 				case KeyEvent.VK_S:
-					logicTimer.setCyclesPerSecond(gameSpeed);
-					logicTimer.reset();
+					submit(Command.SOFT_DROP_STOP, e);
+					break;
+					
+				/*
+				 * Hard Drop - When released, the next piece can be hard dropped.
+				 */
+				case KeyEvent.VK_SPACE:
+					isHardDropHeld = false;
 					break;
 				}
 				
@@ -252,6 +337,41 @@ public class Tetris extends JFrame {
 			
 		});
 		
+		/*
+		 * The window isn't repainted by Swing in active rendering mode, so when it's
+		 * brought back to the front or restored, or the canvas is resized or shown, the
+		 * game loop has to be woken up to draw it again if it's idle. The canvas wakes
+		 * the game loop itself when it's uncovered.
+		 */
+		if(activeRendering) {
+			addWindowListener(new WindowAdapter() {
+				
+				@Override
+				public void windowActivated(WindowEvent e) {
+					wake();
+				}
+				
+				@Override
+				public void windowDeiconified(WindowEvent e) {
+					wake();
+				}
+				
+			});
+			canvas.addComponentListener(new ComponentAdapter() {
+				
+				@Override
+				public void componentResized(ComponentEvent e) {
+					wake();
+				}
+				
+				@Override
+				public void componentShown(ComponentEvent e) {
+					wake();
+				}
+				
+			});
+		}
+		
 		/*
 		 * Here we resize the frame to hold the BoardPanel and SidePanel instances,
 		 * center the window on the screen, and show it to the user.
@@ -262,305 +382,231 @@ public class Tetris extends JFrame {
 	}
 	
 	/**
-	 * Starts the game running. Initializes everything and enters the game loop.
+	 * Starts the game running. Enters the game loop, which updates the engine at
+	 * a fixed tick rate and displays the window at the frame rate, which can be
+	 * higher or lower than the tick rate, or uncapped.
+	 * <p>
+	 * While the game is paused or showing the new game or game over screens, nothing
+	 * changes from one tick to the next, so the loop goes to sleep once that screen has
+	 * been drawn and only wakes up when a key is pressed or the window needs to be
+	 * drawn again. While the performance overlay is shown, it also wakes up often
+	 * enough to keep the overlay up to date.
 	 */
 	private void startGame() {
-		/*
-		 * Initialize our random number generator, logic timer, and new game variables.
-		 */
-		this.random = new Random();
-		this.isNewGame = true;
-		this.gameSpeed = 1.0f;
-		
-		/*
-		 * Setup the timer to keep the game from running before the user presses enter
-		 * to start it.
-		 */
-		this.logicTimer = new Clock(gameSpeed);
-		logicTimer.setPaused(true);
-		
+		this.loopThread = Thread.currentThread();
+		FrameLimiter limiter = null;
+		long maxCatchUp = MAX_CATCH_UP_NANOS;
+		if(frameRate != UNCAPPED) {
+			limiter = new FrameLimiter(frameRate);
+			maxCatchUp = Math.max(maxCatchUp, 2 * 1000000000L / frameRate);
+		}
+		long nextTick = System.nanoTime();
 		while(true) {
-			//Get the time that the frame started.
-			long start = System.nanoTime();
-			
-			//Update the logic timer.
-			logicTimer.update();
-			
 			/*
-			 * If a cycle has elapsed on the timer, we can update the game and
-			 * move our current piece down.
+			 * If the game has fallen too far behind, skip all but the last of the ticks
+			 * that have come due, keeping them lined up with the tick rate.
 			 */
-			if(logicTimer.hasElapsedCycle()) {
-				updateGame();
+			long now = System.nanoTime();
+			int skipped = 0;
+			if(now - nextTick > maxCatchUp) {
+				skipped = (int)((now - nextTick) / GameEngine.NANOS_PER_FRAME);
+				nextTick += skipped * GameEngine.NANOS_PER_FRAME;
 			}
-		
-			//Decrement the drop cool down if necessary.
-			if(dropCooldown > 0) {
-				dropCooldown--;
-			}
-			
-			//Display the window to the user.
-			renderGame();
 			
 			/*
-			 * Sleep to cap the framerate.
+			 * Run every tick that has come due since the last frame. The game always ticks
+			 * at the same rate, so the drop cool down and gravity don't depend on how fast
+			 * frames are being drawn.
 			 */
-			long delta = (System.nanoTime() - start) / 1000000L;
-			if(delta < FRAME_TIME) {
-				try {
-					Thread.sleep(FRAME_TIME - delta);
-				} catch(Exception e) {
-					e.printStackTrace();
+			int ticks = 0;
+			while(now - nextTick >= 0) {
+				if(isAutoPlaying) {
+					autoPlay();
 				}
+				long tickStart = System.nanoTime();
+				engine.tick();
+				monitor.getTickTimes().record(System.nanoTime() - tickStart);
+				nextTick += GameEngine.NANOS_PER_FRAME;
+				ticks++;
 			}
-		}
-	}
-	
-	/**
-	 * Updates the game and handles the bulk of it's logic.
-	 */
-	private void updateGame() {
-		/*
-		 * Check to see if the piece's position can move down to the next row.
-		 */
-		if(board.isValidAndEmpty(currentType, currentCol, currentRow + 1, currentRotation)) {
-			//Increment the current row if it's safe to do so.
-			currentRow++;
-		} else {
-			/*
-			 * We've either reached the bottom of the board, or landed on another piece, so
-			 * we need to add the piece to the board.
-			 */
-			board.addPiece(currentType, currentCol, currentRow, currentRotation);
-			
-			/*
-			 * Check to see if adding the new piece resulted in any cleared lines. If so,
-			 * increase the player's score. (Up to 4 lines can be cleared in a single go;
-			 * [1 = 100pts, 2 = 200pts, 3 = 400pts, 4 = 800pts]).
-			 */
-			int cleared = board.checkLines();
-			if(cleared > 0) {
-				score += 50 << cleared;
-			}
-			
-			/*
-			 * Increase the speed slightly for the next piece and update the game's timer
-			 * to reflect the increase.
-			 */
-			gameSpeed += 0.035f;
-			logicTimer.setCyclesPerSecond(gameSpeed);
-			logicTimer.reset();
 			
-			/*
-			 * Set the drop cooldown so the next piece doesn't automatically come flying
-			 * in from the heavens immediately after this piece hits if we've not reacted
-			 * yet. (~0.5 second buffer).
-			 */
-			dropCooldown = 25;
+			//Display the window to the user, part of the way towards the next tick.
+			float alpha = 1.0f - (float)(nextTick - now) / GameEngine.NANOS_PER_FRAME;
+			long renderStart = System.nanoTime();
+			renderGame(Math.max(0.0f, Math.min(1.0f, alpha)), ticks > 0);
+			monitor.getRenderTimes().record(System.nanoTime() - renderStart);
 			
 			/*
-			 * Update the difficulty level. This has no effect on the game, and is only
-			 * used in the "Level" string in the SidePanel.
+			 * Wait for the next frame to cap the framerate. Every frame is counted by the
+			 * monitor, so the frame rate (uncapped or not) can be watched over JMX or on
+			 * the performance overlay.
 			 */
-			level = (int)(gameSpeed * 1.70f);
+			boolean isMissed = false;
+			if(limiter != null) {
+				isMissed = limiter.sync();
+			}
+			monitor.recordFrame(ticks, skipped, isMissed);
 			
 			/*
-			 * Spawn a new piece to control.
+			 * Sleep until there's some input if the game is idle. Any key pressed since
+			 * we checked will have already woken us up, in which case we don't sleep at
+			 * all. Waking up isn't a guarantee that anything has changed, so we just run
+			 * one more frame and check again. The autoplayer starts a new game by itself,
+			 * so we stay awake for it unless the game is paused. The overlay's numbers
+			 * are only updated when a frame is drawn, so while it's shown we wake up in
+			 * time for each update.
 			 */
-			spawnPiece();
-		}		
-	}
-	
-	/**
-	 * Forces the BoardPanel and SidePanel to repaint.
-	 */
-	private void renderGame() {
-		board.repaint();
-		side.repaint();
+			if(!engine.isPlaying() && (!isAutoPlaying || engine.isPaused())) {
+				if(side.isOverlayVisible()) {
+					LockSupport.parkNanos(this, SidePanel.OVERLAY_INTERVAL);
+				} else {
+					LockSupport.park(this);
+				}
+				
+				//Start counting ticks and frames from now, rather than catching up.
+				engine.skipIdleTime();
+				nextTick = System.nanoTime();
+				if(limiter != null) {
+					limiter.reset();
+				}
+			}
+		}
 	}
 	
 	/**
-	 * Resets the game variables to their default values at the start
-	 * of a new game.
-	 */
-	private void resetGame() {
-		this.level = 1;
-		this.score = 0;
-		this.gameSpeed = 1.0f;
-		this.nextType = TileType.values()[random.nextInt(TYPE_COUNT)];
-		this.isNewGame = false;
-		this.isGameOver = false;		
-		board.clear();
-		logicTimer.reset();
-		logicTimer.setCyclesPerSecond(gameSpeed);
-		spawnPiece();
-	}
-		
-	/**
-	 * Spawns a new piece and resets our piece's variables to their default
-	 * values.
+	 * Lets the autoplayer play the current piece, which it does straight away, so
+	 * one piece is played every tick. When there's no game in progress, a new one
+	 * is started so that the autoplayer can be left to play unattended. The engine is only
+	 * used from the game loop, so this is called just before a tick.
 	 */
-	private void spawnPiece() {
-		/*
-		 * Poll the last piece and reset our position and rotation to
-		 * their default variables, then pick the next piece to use.
-		 */
-		this.currentType = nextType;
-		this.currentCol = currentType.getSpawnColumn();
-		this.currentRow = currentType.getSpawnRow();
-		this.currentRotation = 0;
-		this.nextType = TileType.values()[random.nextInt(TYPE_COUNT)];
-		
-		/*
-		 * If the spawn point is invalid, we need to pause the game and flag that we've lost
-		 * because it means that the pieces on the board have gotten too high.
-		 */
-		if(!board.isValidAndEmpty(currentType, currentCol, currentRow, currentRotation)) {
-			this.isGameOver = true;
-			logicTimer.setPaused(true);
-		}		
-	}
-
-	/**
-	 * Attempts to set the rotation of the current piece to newRotation.
-	 * @param newRotation The rotation of the new peice.
-	 */
-	private void rotatePiece(int newRotation) {
-		/*
-		 * Sometimes pieces will need to be moved when rotated to avoid clipping
-		 * out of the board (the I piece is a good example of this). Here we store
-		 * a temporary row and column in case we need to move the tile as well.
-		 */
-		int newColumn = currentCol;
-		int newRow = currentRow;
-		
-		/*
-		 * Get the insets for each of the sides. These are used to determine how
-		 * many empty rows or columns there are on a given side.
-		 */
-		int left = currentType.getLeftInset(newRotation);
-		int right = currentType.getRightInset(newRotation);
-		int top = currentType.getTopInset(newRotation);
-		int bottom = currentType.getBottomInset(newRotation);
-		
-		/*
-		 * If the current piece is too far to the left or right, move the piece away from the edges
-		 * so that the piece doesn't clip out of the map and automatically become invalid.
-		 */
-		if(currentCol < -left) {
-			newColumn -= currentCol - left;
-		} else if(currentCol + currentType.getDimension() - right >= BoardPanel.COL_COUNT) {
-			newColumn -= (currentCol + currentType.getDimension() - right) - BoardPanel.COL_COUNT + 1;
-		}
-		
-		/*
-		 * If the current piece is too far to the top or bottom, move the piece away from the edges
-		 * so that the piece doesn't clip out of the map and automatically become invalid.
-		 */
-		if(currentRow < -top) {
-			newRow -= currentRow - top;
-		} else if(currentRow + currentType.getDimension() - bottom >= BoardPanel.ROW_COUNT) {
-			newRow -= (currentRow + currentType.getDimension() - bottom) - BoardPanel.ROW_COUNT + 1;
+	private void autoPlay() {
+		if(engine.isNewGame() || engine.isGameOver()) {
+			engine.start();
 		}
-		
-		/*
-		 * Check to see if the new position is acceptable. If it is, update the rotation and
-		 * position of the piece.
-		 */
-		if(board.isValidAndEmpty(currentType, newColumn, newRow, newRotation)) {
-			currentRotation = newRotation;
-			currentRow = newRow;
-			currentCol = newColumn;
+		if(engine.isPlaying()) {
+			autoPlayer.control(engine);
 		}
 	}
 	
 	/**
-	 * Checks to see whether or not the game is paused.
-	 * @return Whether or not the game is paused.
-	 */
-	public boolean isPaused() {
-		return isPaused;
-	}
-	
-	/**
-	 * Checks to see whether or not the game is over.
-	 * @return Whether or not the game is over.
-	 */
-	public boolean isGameOver() {
-		return isGameOver;
-	}
-	
-	/**
-	 * Checks to see whether or not we're on a new game.
-	 * @return Whether or not this is a new game.
-	 */
-	public boolean isNewGame() {
-		return isNewGame;
-	}
-	
-	/**
-	 * Gets the current score.
-	 * @return The score.
-	 */
-	public int getScore() {
-		return score;
-	}
-	
-	/**
-	 * Gets the current level.
-	 * @return The level.
-	 */
-	public int getLevel() {
-		return level;
-	}
-	
-	/**
-	 * Gets the current type of piece we're using.
-	 * @return The piece type.
-	 */
-	public TileType getPieceType() {
-		return currentType;
+	 * Hands a command over to the game loop, stamped with the time that the key
+	 * event that caused it happened. The event's time is in milliseconds on the
+	 * wall clock, so it's converted to the equivalent {@code System.nanoTime}, which
+	 * means that the time the event spent waiting to be dispatched is included in
+	 * the input latency.
+	 * @param command The command.
+	 * @param e The key event that caused the command.
+	 */
+	private void submit(Command command, KeyEvent e) {
+		long age = Math.max(System.currentTimeMillis() - e.getWhen(), 0L);
+		engine.submit(command, System.nanoTime() - age * 1000000L);
+		wake();
 	}
 	
 	/**
-	 * Gets the next type of piece we're using.
-	 * @return The next piece.
+	 * Wakes up the game loop if it's asleep while the game is idle.
 	 */
-	public TileType getNextPieceType() {
-		return nextType;
+	private void wake() {
+		Thread thread = loopThread;
+		if(thread != null) {
+			LockSupport.unpark(thread);
+		}
 	}
 	
 	/**
-	 * Gets the column of the current piece.
-	 * @return The column.
-	 */
-	public int getPieceCol() {
-		return currentCol;
+	 * Asks the event dispatch thread to pick up the frame that the engine just
+	 * published, and to repaint the parts of the BoardPanel and SidePanel that
+	 * have changed. Swing paints the panels on that thread, so it's the only one
+	 * that reads the snapshots.
+	 * <p>
+	 * In active rendering mode, the whole frame is drawn and presented straight away.
+	 * @param alpha How far through the current tick we are, from 0 to 1.
+	 * @param hasTicked Whether or not the game has ticked since the last frame.
+	 */
+	private void renderGame(float alpha, boolean hasTicked) {
+		if(canvas != null) {
+			canvas.render(alpha);
+			return;
+		}
+		
+		//Swing only repaints what has changed, so there's nothing to do until the game ticks.
+		if(hasTicked && isFramePending.compareAndSet(false, true)) {
+			EventQueue.invokeLater(frameUpdater);
+		}
 	}
-	
+
 	/**
-	 * Gets the row of the current piece.
-	 * @return The row.
+	 * Gets the refresh rate of the main display, which is the frame rate used for vsync.
+	 * @return The refresh rate.
 	 */
-	public int getPieceRow() {
-		return currentRow;
+	private static int getRefreshRate() {
+		DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+		int rate = mode.getRefreshRate();
+		return (rate != DisplayMode.REFRESH_RATE_UNKNOWN) ? rate : DEFAULT_REFRESH_RATE;
 	}
-	
+
 	/**
-	 * Gets the rotation of the current piece.
-	 * @return The rotation.
+	 * Prints a problem with the command line arguments and how to use them, then
+	 * exits.
+	 * @param problem The problem with the arguments.
 	 */
-	public int getPieceRotation() {
-		return currentRotation;
+	private static void exitWithUsage(String problem) {
+		System.err.println(problem);
+		System.err.println("Usage: Tetris [-active] [-20g] [-fps <frames per second>|vsync|uncapped] [-ai] [-weights <weights>]");
+		System.exit(1);
 	}
 
 	/**
 	 * Entry-point of the game. Responsible for creating and starting a new
 	 * game instance.
-	 * @param args Unused.
+	 * @param args Pass {@code -active} to use active rendering, and {@code -20g}
+	 * to make pieces fall instantly. Pass {@code -fps} followed by a frame rate,
+	 * {@code vsync} or {@code uncapped} to draw frames at a different rate than
+	 * the game ticks; this turns on active rendering. The frame rate must be at
+	 * least 1. Pass {@code -ai} to start with the autoplayer playing, and
+	 * {@code -weights} followed by a comma separated list of weights to change
+	 * how it plays.
 	 */
 	public static void main(String[] args) {
-		Tetris tetris = new Tetris();
+		boolean activeRendering = false;
+		boolean instantGravity = false;
+		int frameRate = GameEngine.FRAMES_PER_SECOND;
+		boolean autoPlay = false;
+		AutoPlayer.Weights weights = AutoPlayer.Weights.DEFAULT;
+		for(int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if(arg.equals("-active")) {
+				activeRendering = true;
+			} else if(arg.equals("-20g")) {
+				instantGravity = true;
+			} else if(arg.equals("-fps") && i + 1 < args.length) {
+				String rate = args[++i];
+				if(rate.equals("vsync")) {
+					frameRate = getRefreshRate();
+				} else if(rate.equals("uncapped")) {
+					frameRate = UNCAPPED;
+				} else {
+					//Anything other than the keywords has to be a whole number of frames.
+					try {
+						frameRate = Integer.parseInt(rate);
+					} catch(NumberFormatException e) {
+						frameRate = -1;
+					}
+					if(frameRate < 1) {
+						exitWithUsage("Invalid frame rate: " + rate);
+					}
+				}
+				activeRendering = true;
+			} else if(arg.equals("-ai")) {
+				autoPlay = true;
+			} else if(arg.equals("-weights") && i + 1 < args.length) {
+				weights = AutoPlayer.Weights.parse(args[++i]);
+			}
+		}
+		
+		Tetris tetris = new Tetris(activeRendering, frameRate, weights);
+		tetris.engine.setInstantGravity(instantGravity);
+		tetris.isAutoPlaying = autoPlay;
 		tetris.startGame();
 	}
 
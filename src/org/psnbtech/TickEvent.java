@@ -0,0 +1,57 @@
+package org.psnbtech;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code TickEvent} class is the Flight Recorder event that is emitted for
+ * every tick of the {@link GameEngine}. It's duration is the time taken by the tick.
+ * @author Brendan Jones
+ *
+ */
+@Name("org.psnbtech.Tick")
+@Label("Tick")
+@Category("Tetris")
+@Description("A tick of the game engine")
+@StackTrace(false)
+class TickEvent extends Event {
+
+	/**
+	 * The type of this event, which knows whether or not it's being recorded.
+	 */
+	private static final EventType TYPE = EventType.getEventType(TickEvent.class);
+
+	/**
+	 * The number of commands that were applied at the start of the tick.
+	 */
+	@Label("Commands")
+	int commands;
+
+	/**
+	 * The number of gravity cycles that were applied during the tick.
+	 */
+	@Label("Gravity Cycles")
+	int gravityCycles;
+
+	/**
+	 * Whether or not a game was being played at the end of the tick.
+	 */
+	@Label("Playing")
+	boolean isPlaying;
+
+	/**
+	 * Checks to see whether or not this event is being recorded. The engine only
+	 * creates the event when it is, so nothing is allocated on every tick when
+	 * nothing is being recorded.
+	 * @return Whether or not the event is enabled.
+	 */
+	static boolean isRecording() {
+		return TYPE.isEnabled();
+	}
+
+}
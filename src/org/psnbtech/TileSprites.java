@@ -0,0 +1,122 @@
+package org.psnbtech;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * The {@code TileSprites} class holds a pre-rendered image of every type of tile
+ * at a given size, so that drawing a tile is a single image copy rather than a
+ * handful of rectangles and lines.
+ * @author Brendan Jones
+ *
+ */
+public class TileSprites {
+
+	/**
+	 * The alpha value of the ghost tiles.
+	 */
+	private static final int GHOST_ALPHA = 20;
+
+	/**
+	 * The size of each tile, in pixels.
+	 */
+	private int tileSize;
+
+	/**
+	 * The sprite for each type of tile, indexed by ordinal.
+	 */
+	private BufferedImage[] tiles;
+
+	/**
+	 * The semi-transparent ghost sprite for each type of tile, indexed by ordinal.
+	 */
+	private BufferedImage[] ghosts;
+
+	/**
+	 * Creates a new set of sprites and renders them.
+	 * @param tileSize The size of each tile, in pixels.
+	 * @param shadeWidth The width of the shading on each tile.
+	 */
+	public TileSprites(int tileSize, int shadeWidth) {
+		this.tileSize = tileSize;
+
+		TileType[] types = TileType.values();
+		this.tiles = new BufferedImage[types.length];
+		this.ghosts = new BufferedImage[types.length];
+		for(TileType type : types) {
+			tiles[type.ordinal()] = render(type.getBaseColor(), type.getLightColor(), type.getDarkColor(), shadeWidth, Transparency.OPAQUE);
+
+			Color base = type.getBaseColor();
+			base = new Color(base.getRed(), base.getGreen(), base.getBlue(), GHOST_ALPHA);
+			ghosts[type.ordinal()] = render(base, base.brighter(), base.darker(), shadeWidth, Transparency.TRANSLUCENT);
+		}
+	}
+
+	/**
+	 * Draws a tile.
+	 * @param type The type of tile to draw.
+	 * @param x The x coordinate of the tile.
+	 * @param y The y coordinate of the tile.
+	 * @param g The graphics object.
+	 */
+	public void drawTile(TileType type, int x, int y, Graphics g) {
+		g.drawImage(tiles[type.ordinal()], x, y, null);
+	}
+
+	/**
+	 * Draws a semi-transparent ghost tile.
+	 * @param type The type of tile to draw.
+	 * @param x The x coordinate of the tile.
+	 * @param y The y coordinate of the tile.
+	 * @param g The graphics object.
+	 */
+	public void drawGhost(TileType type, int x, int y, Graphics g) {
+		g.drawImage(ghosts[type.ordinal()], x, y, null);
+	}
+
+	/**
+	 * Renders a single tile into a new image.
+	 * @param base The base color of tile.
+	 * @param light The light color of the tile.
+	 * @param dark The dark color of the tile.
+	 * @param shadeWidth The width of the shading.
+	 * @param transparency The transparency mode of the image.
+	 * @return The image.
+	 */
+	private BufferedImage render(Color base, Color light, Color dark, int shadeWidth, int transparency) {
+		BufferedImage image = Images.createCompatibleImage(tileSize, tileSize, transparency);
+		Graphics2D g = image.createGraphics();
+		try {
+			/*
+			 * Fill the entire tile with the base color.
+			 */
+			g.setColor(base);
+			g.fillRect(0, 0, tileSize, tileSize);
+
+			/*
+			 * Fill the bottom and right edges of the tile with the dark shading color.
+			 */
+			g.setColor(dark);
+			g.fillRect(0, tileSize - shadeWidth, tileSize, shadeWidth);
+			g.fillRect(tileSize - shadeWidth, 0, shadeWidth, tileSize);
+
+			/*
+			 * Fill the top and left edges with the light shading. We draw a single line
+			 * for each row or column rather than a rectangle so that we can draw a nice
+			 * looking diagonal where the light and dark shading meet.
+			 */
+			g.setColor(light);
+			for(int i = 0; i < shadeWidth; i++) {
+				g.drawLine(0, i, tileSize - i - 1, i);
+				g.drawLine(i, 0, i, tileSize - i - 1);
+			}
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+}
@@ -240,6 +240,63 @@ public enum TileType {
 	 */
 	private boolean[][] tiles;
 	
+	/**
+	 * The left insets for each rotation.
+	 */
+	private int[] leftInsets;
+	
+	/**
+	 * The right insets for each rotation.
+	 */
+	private int[] rightInsets;
+	
+	/**
+	 * The top insets for each rotation.
+	 */
+	private int[] topInsets;
+	
+	/**
+	 * The bottom insets for each rotation.
+	 */
+	private int[] bottomInsets;
+	
+	/**
+	 * The column of each occupied tile for each rotation.
+	 */
+	private int[][] cellCols;
+	
+	/**
+	 * The row of each occupied tile for each rotation.
+	 */
+	private int[][] cellRows;
+	
+	/**
+	 * The row of the lowest tile in each column of the piece's array for each
+	 * rotation, or -1 for columns with no tiles.
+	 */
+	private int[][] columnBottoms;
+	
+	/**
+	 * The row masks for each rotation, already shifted into every column the piece
+	 * can be placed in. Indexed by rotation, column + dimension, then row.
+	 */
+	private int[][][] rowMasks;
+	
+	/**
+	 * The lowest rotation that covers the same shape as each rotation.
+	 */
+	private int[] canonicalRotations;
+	
+	/**
+	 * How far each rotation's tiles are moved across from it's canonical rotation's.
+	 */
+	private int[] canonicalColOffsets;
+	
+	/**
+	 * How far each rotation's tiles are moved down from it's canonical rotation's.
+	 */
+	private int[] canonicalRowOffsets;
+	
 	/**
 	 * Creates a new TileType.
 	 * @param color The base color of the tile.
@@ -257,6 +314,92 @@ public enum TileType {
 		this.cols = cols;
 		this.rows = rows;
 		
+		/*
+		 * Calculate the insets, tile offsets, and row masks for each rotation up front.
+		 * These are queried every time a piece is moved, rotated or drawn, so it's much
+		 * cheaper to look them up than to scan the tile array every time.
+		 */
+		this.leftInsets = new int[4];
+		this.rightInsets = new int[4];
+		this.topInsets = new int[4];
+		this.bottomInsets = new int[4];
+		this.cellCols = new int[4][];
+		this.cellRows = new int[4][];
+		this.columnBottoms = new int[4][dimension];
+		this.rowMasks = new int[4][dimension + Board.COL_COUNT + 1][];
+		for(int rotation = 0; rotation < 4; rotation++) {
+			leftInsets[rotation] = scanLeftInset(rotation);
+			rightInsets[rotation] = scanRightInset(rotation);
+			topInsets[rotation] = scanTopInset(rotation);
+			bottomInsets[rotation] = scanBottomInset(rotation);
+			
+			//Collect the offset of every tile, in row order.
+			int count = 0;
+			for(int i = 0; i < dimension * dimension; i++) {
+				if(tiles[rotation][i]) {
+					count++;
+				}
+			}
+			cellCols[rotation] = new int[count];
+			cellRows[rotation] = new int[count];
+			for(int y = 0, i = 0; y < dimension; y++) {
+				for(int x = 0; x < dimension; x++) {
+					if(isTile(x, y, rotation)) {
+						cellCols[rotation][i] = x;
+						cellRows[rotation][i] = y;
+						i++;
+					}
+				}
+			}
+			
+			//Find the lowest tile in every column, which is what lands first.
+			for(int x = 0; x < dimension; x++) {
+				columnBottoms[rotation][x] = -1;
+				for(int y = 0; y < dimension; y++) {
+					if(isTile(x, y, rotation)) {
+						columnBottoms[rotation][x] = y;
+					}
+				}
+			}
+			
+			/*
+			 * Build the row masks for every column from -dimension to COL_COUNT. Columns
+			 * outside of the board simply drop the bits that fall off of the edge, which
+			 * is fine because those positions fail the inset checks anyway.
+			 */
+			for(int x = -dimension; x <= Board.COL_COUNT; x++) {
+				int[] masks = new int[dimension];
+				for(int y = 0; y < dimension; y++) {
+					for(int col = 0; col < dimension; col++) {
+						int boardCol = x + col;
+						if(isTile(col, y, rotation) && boardCol >= 0 && boardCol < Board.COL_COUNT) {
+							masks[y] |= 1 << boardCol;
+						}
+					}
+				}
+				rowMasks[rotation][x + dimension] = masks;
+			}
+		}
+		
+		/*
+		 * Find the rotations that cover exactly the same tiles as an earlier rotation
+		 * once they're lined up, such as every rotation of the O piece, or opposite
+		 * rotations of the I, S and Z pieces. Placing the piece in either rotation
+		 * gives the same result, so move generators only need to keep one of them.
+		 */
+		this.canonicalRotations = new int[4];
+		this.canonicalColOffsets = new int[4];
+		this.canonicalRowOffsets = new int[4];
+		for(int rotation = 0; rotation < 4; rotation++) {
+			int canonical = 0;
+			while(canonical < rotation && !isSameShape(canonical, rotation)) {
+				canonical++;
+			}
+			canonicalRotations[rotation] = canonical;
+			canonicalColOffsets[rotation] = leftInsets[rotation] - leftInsets[canonical];
+			canonicalRowOffsets[rotation] = topInsets[rotation] - topInsets[canonical];
+		}
+		
 		this.spawnCol = 5 - (dimension >> 1);
 		this.spawnRow = getTopInset(0);
 	}
@@ -345,6 +488,180 @@ public enum TileType {
 	 * @return The left inset.
 	 */
 	public int getLeftInset(int rotation) {
+		return leftInsets[rotation];
+	}
+	
+	/**
+	 * The right inset is represented by the number of empty columns on the left
+	 * side of the array for the given rotation.
+	 * @param rotation The rotation.
+	 * @return The right inset.
+	 */
+	public int getRightInset(int rotation) {
+		return rightInsets[rotation];
+	}
+	
+	/**
+	 * The left inset is represented by the number of empty rows on the top
+	 * side of the array for the given rotation.
+	 * @param rotation The rotation.
+	 * @return The top inset.
+	 */
+	public int getTopInset(int rotation) {
+		return topInsets[rotation];
+	}
+	
+	/**
+	 * The botom inset is represented by the number of empty rows on the bottom
+	 * side of the array for the given rotation.
+	 * @param rotation The rotation.
+	 * @return The bottom inset.
+	 */
+	public int getBottomInset(int rotation) {
+		return bottomInsets[rotation];
+	}
+	
+	/**
+	 * Gets the columns of every tile in the piece for the given rotation. The
+	 * returned array is shared and must not be modified.
+	 * @param rotation The rotation.
+	 * @return The column of each tile, relative to the piece's array.
+	 */
+	public int[] getCellCols(int rotation) {
+		return cellCols[rotation];
+	}
+	
+	/**
+	 * Gets the rows of every tile in the piece for the given rotation. The
+	 * returned array is shared and must not be modified.
+	 * @param rotation The rotation.
+	 * @return The row of each tile, relative to the piece's array.
+	 */
+	public int[] getCellRows(int rotation) {
+		return cellRows[rotation];
+	}
+	
+	/**
+	 * Gets the row of the lowest tile in each column of the piece for the given
+	 * rotation. The returned array is shared and must not be modified.
+	 * @param rotation The rotation.
+	 * @return The row of the lowest tile in each column of the piece's array,
+	 * or -1 for columns that have no tiles.
+	 */
+	public int[] getColumnBottoms(int rotation) {
+		return columnBottoms[rotation];
+	}
+	
+	/**
+	 * Gets the occupancy masks for each row of the piece when it is placed with
+	 * it's array starting at column {@code x}. Bit {@code n} of a mask is set if
+	 * the piece covers board column {@code n}. The returned array is shared and
+	 * must not be modified.
+	 * @param rotation The rotation.
+	 * @param x The column of the piece, from {@code -dimension} to {@code COL_COUNT}.
+	 * @return The row masks.
+	 */
+	public int[] getRowMasks(int rotation, int x) {
+		return rowMasks[rotation][x + dimension];
+	}
+	
+	/**
+	 * Gets the lowest rotation that covers the same shape as the given rotation.
+	 * A piece at {@code (x, y)} in the given rotation covers the same tiles as
+	 * one at {@code (x + getCanonicalColOffset(rotation), y + getCanonicalRowOffset(rotation))}
+	 * in the canonical rotation.
+	 * @param rotation The rotation.
+	 * @return The canonical rotation.
+	 */
+	public int getCanonicalRotation(int rotation) {
+		return canonicalRotations[rotation];
+	}
+	
+	/**
+	 * Gets how many columns a piece needs to be moved to cover the same tiles in
+	 * it's canonical rotation.
+	 * @param rotation The rotation.
+	 * @return The column offset.
+	 */
+	public int getCanonicalColOffset(int rotation) {
+		return canonicalColOffsets[rotation];
+	}
+	
+	/**
+	 * Gets how many rows a piece needs to be moved to cover the same tiles in
+	 * it's canonical rotation.
+	 * @param rotation The rotation.
+	 * @return The row offset.
+	 */
+	public int getCanonicalRowOffset(int rotation) {
+		return canonicalRowOffsets[rotation];
+	}
+	
+	/**
+	 * Gets the column that a piece is moved to when it's rotated. Sometimes pieces
+	 * need to be moved away from the sides of the board so they don't stick out of
+	 * them after rotating (the I piece is a good example of this).
+	 * @param rotation The new rotation.
+	 * @param x The column of the piece.
+	 * @return The column of the piece after it's been moved away from the sides.
+	 */
+	public int getKickCol(int rotation, int x) {
+		if(x < -leftInsets[rotation]) {
+			return -leftInsets[rotation];
+		} else if(x + dimension - rightInsets[rotation] >= Board.COL_COUNT) {
+			return Board.COL_COUNT - dimension + rightInsets[rotation] - 1;
+		}
+		return x;
+	}
+	
+	/**
+	 * Gets the row that a piece is moved to when it's rotated, so that it doesn't
+	 * stick out of the top or bottom of the board.
+	 * @param rotation The new rotation.
+	 * @param y The row of the piece.
+	 * @return The row of the piece after it's been moved away from the top and bottom.
+	 */
+	public int getKickRow(int rotation, int y) {
+		if(y < -topInsets[rotation]) {
+			return -topInsets[rotation];
+		} else if(y + dimension - bottomInsets[rotation] >= Board.ROW_COUNT) {
+			return Board.ROW_COUNT - dimension + bottomInsets[rotation] - 1;
+		}
+		return y;
+	}
+	
+	/**
+	 * Checks to see whether or not two rotations cover the same shape once their
+	 * top left tiles are lined up.
+	 * @param first The first rotation.
+	 * @param second The second rotation.
+	 * @return Whether or not the shapes are the same.
+	 */
+	private boolean isSameShape(int first, int second) {
+		int[] firstCols = cellCols[first];
+		int[] secondCols = cellCols[second];
+		if(firstCols.length != secondCols.length) {
+			return false;
+		}
+		
+		//The tiles are stored in row order, so matching shapes list them in the same order.
+		int[] firstRows = cellRows[first];
+		int[] secondRows = cellRows[second];
+		for(int i = 0; i < firstCols.length; i++) {
+			if(firstCols[i] - leftInsets[first] != secondCols[i] - leftInsets[second]
+					|| firstRows[i] - topInsets[first] != secondRows[i] - topInsets[second]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Calculates the left inset by scanning the tile array for the given rotation.
+	 * @param rotation The rotation.
+	 * @return The left inset.
+	 */
+	private int scanLeftInset(int rotation) {
 		/*
 		 * Loop through from left to right until we find a tile then return
 		 * the column.
@@ -360,12 +677,11 @@ public enum TileType {
 	}
 	
 	/**
-	 * The right inset is represented by the number of empty columns on the left
-	 * side of the array for the given rotation.
+	 * Calculates the right inset by scanning the tile array for the given rotation.
 	 * @param rotation The rotation.
 	 * @return The right inset.
 	 */
-	public int getRightInset(int rotation) {
+	private int scanRightInset(int rotation) {
 		/*
 		 * Loop through from right to left until we find a tile then return
 		 * the column.
@@ -381,12 +697,11 @@ public enum TileType {
 	}
 	
 	/**
-	 * The left inset is represented by the number of empty rows on the top
-	 * side of the array for the given rotation.
+	 * Calculates the top inset by scanning the tile array for the given rotation.
 	 * @param rotation The rotation.
 	 * @return The top inset.
 	 */
-	public int getTopInset(int rotation) {
+	private int scanTopInset(int rotation) {
 		/*
 		 * Loop through from top to bottom until we find a tile then return
 		 * the row.
@@ -402,12 +717,11 @@ public enum TileType {
 	}
 	
 	/**
-	 * The botom inset is represented by the number of empty rows on the bottom
-	 * side of the array for the given rotation.
+	 * Calculates the bottom inset by scanning the tile array for the given rotation.
 	 * @param rotation The rotation.
 	 * @return The bottom inset.
 	 */
-	public int getBottomInset(int rotation) {
+	private int scanBottomInset(int rotation) {
 		/*
 		 * Loop through from bottom to top until we find a tile then return
 		 * the row.
@@ -0,0 +1,31 @@
+package org.psnbtech;
+
+/**
+ * The {@code TimeSource} interface provides the current time to a {@code Clock}.
+ * Live games use the system's high resolution clock, while headless games and
+ * replays can use a {@code ManualTimeSource} so that time only moves when they
+ * say so, and can be stepped as fast as the computer allows.
+ * @author Brendan Jones
+ *
+ */
+public interface TimeSource {
+
+	/**
+	 * The time source backed by {@code System.nanoTime()}.
+	 */
+	public static final TimeSource SYSTEM = new TimeSource() {
+
+		@Override
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+
+	};
+
+	/**
+	 * Gets the current time. Only the difference between two times is meaningful.
+	 * @return The current time in nanoseconds.
+	 */
+	public long nanoTime();
+
+}
@@ -0,0 +1,221 @@
+package org.psnbtech;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code TranspositionTable} class remembers values that have been worked
+ * out for positions, by their Zobrist hash, so that a search which reaches the
+ * same position more than once only has to evaluate it once.
+ * <p>
+ * The table has a fixed number of buckets, each holding two entries. The first
+ * entry keeps whichever position took the most work to evaluate, measured by the
+ * depth it was searched to, and the second always takes the newest position, so
+ * expensive values aren't pushed out by a stream of cheap ones. Entries from
+ * before the last call to {@code nextGeneration} can always be replaced, so that
+ * stale positions don't hold on to the first entry forever.
+ * <p>
+ * The table can be shared by any number of threads without locking. Each entry
+ * is stored as two longs, the data and the key mixed with the data, which are
+ * written separately. A reader that sees the two halves of different writes
+ * won't be able to get the key back out of them, so it treats the entry as a
+ * miss rather than returning another position's value.
+ * @author Brendan Jones
+ *
+ */
+public class TranspositionTable {
+
+	/**
+	 * The value returned by {@code probe} when a position isn't in the table.
+	 */
+	public static final long MISS = -1L;
+
+	/**
+	 * The number of bits of an entry's data that hold it's value.
+	 */
+	public static final int VALUE_BITS = 48;
+
+	/**
+	 * The largest value that can be stored.
+	 */
+	public static final long MAX_VALUE = (1L << VALUE_BITS) - 1;
+
+	/**
+	 * The largest depth that can be stored.
+	 */
+	public static final int MAX_DEPTH = 255;
+
+	/**
+	 * The number of longs used by each bucket; two for each of it's entries.
+	 */
+	private static final int BUCKET_LONGS = 4;
+
+	/**
+	 * The bit that an entry's depth starts at.
+	 */
+	private static final int DEPTH_SHIFT = VALUE_BITS;
+
+	/**
+	 * The bit that an entry's generation starts at.
+	 */
+	private static final int GENERATION_SHIFT = DEPTH_SHIFT + 8;
+
+	/**
+	 * The mask of the bits of a generation.
+	 */
+	private static final int GENERATION_MASK = 0x7F;
+
+	/**
+	 * The bit that is set in the data of every entry, so that an empty entry,
+	 * which is all zeroes, can be told apart from one that holds a value of 0.
+	 */
+	private static final long USED = 1L << 63;
+
+	/**
+	 * The entries. Each bucket holds the key mixed with the data, then the data,
+	 * for each of it's two entries.
+	 */
+	private AtomicLongArray entries;
+
+	/**
+	 * The mask that selects a bucket from a key.
+	 */
+	private int bucketMask;
+
+	/**
+	 * The current generation, which new entries are stored with.
+	 */
+	private volatile int generation;
+
+	/**
+	 * Creates a new TranspositionTable.
+	 * @param buckets The number of buckets, which is rounded up to a power of two.
+	 * The table holds two entries for each bucket, in 32 bytes.
+	 */
+	public TranspositionTable(int buckets) {
+		if(buckets < 1 || buckets > (1 << 28)) {
+			throw new IllegalArgumentException("Bucket count out of range: " + buckets);
+		}
+		int size = Integer.highestOneBit(buckets);
+		if(size < buckets) {
+			size <<= 1;
+		}
+		this.entries = new AtomicLongArray(size * BUCKET_LONGS);
+		this.bucketMask = size - 1;
+	}
+
+	/**
+	 * Looks up the value of a position.
+	 * @param key The hash of the position.
+	 * @return The value, or {@code MISS} if the position isn't in the table.
+	 */
+	public long probe(long key) {
+		int bucket = getBucket(key);
+		for(int slot = bucket; slot < bucket + BUCKET_LONGS; slot += 2) {
+			long data = entries.getOpaque(slot + 1);
+			if((entries.getOpaque(slot) ^ data) == key && data != 0L) {
+				return data & MAX_VALUE;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the value of a position, replacing whichever entry in it's bucket is
+	 * least worth keeping.
+	 * @param key The hash of the position.
+	 * @param value The value, from 0 to {@code MAX_VALUE}.
+	 * @param depth How deep the position was searched to work out the value, from
+	 * 0 to {@code MAX_DEPTH}. Deeper values are kept in preference to shallower ones.
+	 */
+	public void store(long key, long value, int depth) {
+		if(value < 0 || value > MAX_VALUE) {
+			throw new IllegalArgumentException("Value out of range: " + value);
+		}
+		int current = generation;
+		long data = USED | value | ((long)Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT) | ((long)current << GENERATION_SHIFT);
+
+		/*
+		 * The first entry is replaced if it holds the same position, or one that
+		 * wasn't searched as deeply or is from an older generation, and whatever it
+		 * held moves down to the second entry. Otherwise the new position goes in
+		 * the second entry.
+		 */
+		int first = getBucket(key);
+		long firstData = entries.getOpaque(first + 1);
+		long firstKey = entries.getOpaque(first) ^ firstData;
+		if(firstKey == key || firstData == 0L || getDepth(firstData) <= depth || getGeneration(firstData) != current) {
+			if(firstKey != key && firstData != 0L) {
+				write(first + 2, firstKey, firstData);
+			}
+			write(first, key, data);
+		} else {
+			write(first + 2, key, data);
+		}
+	}
+
+	/**
+	 * Starts a new generation. Entries stored before this can be replaced by any
+	 * new entry, but can still be found until they are. This should be called at
+	 * the start of each search.
+	 */
+	public void nextGeneration() {
+		this.generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	/**
+	 * Empties the table. This must not be called while other threads are using it.
+	 */
+	public void clear() {
+		for(int i = 0; i < entries.length(); i++) {
+			entries.setOpaque(i, 0L);
+		}
+	}
+
+	/**
+	 * Gets the number of entries that the table can hold.
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return (bucketMask + 1) * 2;
+	}
+
+	/**
+	 * Writes an entry. The two halves are written separately, which is safe since a
+	 * reader that only sees one of them can't get the key back out of the entry.
+	 * @param slot The index of the entry.
+	 * @param key The hash of the position.
+	 * @param data The data of the entry.
+	 */
+	private void write(int slot, long key, long data) {
+		entries.setOpaque(slot + 1, data);
+		entries.setOpaque(slot, key ^ data);
+	}
+
+	/**
+	 * Gets the index of the first long of the bucket that a position belongs in.
+	 * @param key The hash of the position.
+	 * @return The index.
+	 */
+	private int getBucket(long key) {
+		return ((int)(key ^ (key >>> 32)) & bucketMask) * BUCKET_LONGS;
+	}
+
+	/**
+	 * Gets the depth of an entry.
+	 * @param data The data of the entry.
+	 * @return The depth.
+	 */
+	private static int getDepth(long data) {
+		return (int)(data >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * Gets the generation of an entry.
+	 * @param data The data of the entry.
+	 * @return The generation.
+	 */
+	private static int getGeneration(long data) {
+		return (int)(data >>> GENERATION_SHIFT) & GENERATION_MASK;
+	}
+
+}
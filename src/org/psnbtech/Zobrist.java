@@ -0,0 +1,149 @@
+package org.psnbtech;
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code Zobrist} class holds the random keys used to hash positions. Every
+ * tile on the board has a key, and a board's hash is the exclusive or of the keys
+ * of every occupied tile, so placing or removing a tile only takes a single
+ * exclusive or to update the hash. Pieces have keys for their type and rotation,
+ * column and row, which are combined the same way.
+ * <p>
+ * The keys are generated from a fixed seed, so a position always has the same
+ * hash from one run to the next.
+ * @author Brendan Jones
+ *
+ */
+public class Zobrist {
+
+	/**
+	 * The seed that every key is generated from.
+	 */
+	private static final long SEED = 0x5DEECE66DL;
+
+	/**
+	 * The number of columns covered by each of the tables used to look up the
+	 * key of a whole row at once.
+	 */
+	private static final int CHUNK_BITS = 5;
+
+	/**
+	 * The number of tables needed to cover every column of a row.
+	 */
+	private static final int CHUNK_COUNT = (Board.COL_COUNT + CHUNK_BITS - 1) / CHUNK_BITS;
+
+	/**
+	 * How far a piece's column or row can be outside of the board, which is the
+	 * largest dimension of any piece.
+	 */
+	private static final int PIECE_OFFSET = 4;
+
+	/**
+	 * The key of each tile, indexed by row and then column.
+	 */
+	private static final long[][] TILE_KEYS;
+
+	/**
+	 * The combined keys of every set of tiles within a chunk of columns, indexed
+	 * by row, then chunk, then the mask of the tiles within the chunk.
+	 */
+	private static final long[][][] CHUNK_KEYS;
+
+	/**
+	 * The key of each type and rotation of piece.
+	 */
+	private static final long[][] PIECE_KEYS;
+
+	/**
+	 * The key of each column that a piece can be in, offset by {@code PIECE_OFFSET}.
+	 */
+	private static final long[] PIECE_COL_KEYS;
+
+	/**
+	 * The key of each row that a piece can be on, offset by {@code PIECE_OFFSET}.
+	 */
+	private static final long[] PIECE_ROW_KEYS;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		TILE_KEYS = new long[Board.ROW_COUNT][Board.COL_COUNT];
+		CHUNK_KEYS = new long[Board.ROW_COUNT][CHUNK_COUNT][1 << CHUNK_BITS];
+		for(int row = 0; row < Board.ROW_COUNT; row++) {
+			for(int col = 0; col < Board.COL_COUNT; col++) {
+				TILE_KEYS[row][col] = random.nextLong();
+			}
+
+			//Combine the keys of every subset of each chunk's columns ahead of time.
+			for(int chunk = 0; chunk < CHUNK_COUNT; chunk++) {
+				for(int mask = 1; mask < (1 << CHUNK_BITS); mask++) {
+					int bit = Integer.numberOfTrailingZeros(mask);
+					int col = chunk * CHUNK_BITS + bit;
+					long key = (col < Board.COL_COUNT) ? TILE_KEYS[row][col] : 0L;
+					CHUNK_KEYS[row][chunk][mask] = CHUNK_KEYS[row][chunk][mask & (mask - 1)] ^ key;
+				}
+			}
+		}
+
+		TileType[] types = TileType.values();
+		PIECE_KEYS = new long[types.length][4];
+		for(int type = 0; type < types.length; type++) {
+			for(int rotation = 0; rotation < 4; rotation++) {
+				PIECE_KEYS[type][rotation] = random.nextLong();
+			}
+		}
+		PIECE_COL_KEYS = new long[Board.COL_COUNT + PIECE_OFFSET];
+		for(int col = 0; col < PIECE_COL_KEYS.length; col++) {
+			PIECE_COL_KEYS[col] = random.nextLong();
+		}
+		PIECE_ROW_KEYS = new long[Board.ROW_COUNT + PIECE_OFFSET];
+		for(int row = 0; row < PIECE_ROW_KEYS.length; row++) {
+			PIECE_ROW_KEYS[row] = random.nextLong();
+		}
+	}
+
+	/**
+	 * The keys are only used statically.
+	 */
+	private Zobrist() {
+	}
+
+	/**
+	 * Gets the key of a single tile.
+	 * @param x The column of the tile.
+	 * @param y The row of the tile.
+	 * @return The key.
+	 */
+	public static long getTileKey(int x, int y) {
+		return TILE_KEYS[y][x];
+	}
+
+	/**
+	 * Gets the combined key of a set of tiles on a row.
+	 * @param y The row.
+	 * @param mask The tiles, with bit {@code n} set for column {@code n}.
+	 * @return The exclusive or of the key of every tile in the mask.
+	 */
+	public static long getRowKey(int y, int mask) {
+		long[][] chunks = CHUNK_KEYS[y];
+		long key = 0L;
+		for(int chunk = 0; chunk < CHUNK_COUNT; chunk++) {
+			key ^= chunks[chunk][(mask >>> (chunk * CHUNK_BITS)) & ((1 << CHUNK_BITS) - 1)];
+		}
+		return key;
+	}
+
+	/**
+	 * Gets the key of a piece, which covers it's type, rotation and position but
+	 * not the tiles that it covers, so it can be combined with a board's hash to
+	 * tell apart the same board with the piece in different places.
+	 * @param type The type of piece.
+	 * @param x The column of the piece.
+	 * @param y The row of the piece.
+	 * @param rotation The rotation of the piece.
+	 * @return The key.
+	 */
+	public static long getPieceKey(TileType type, int x, int y, int rotation) {
+		return PIECE_KEYS[type.ordinal()][rotation] ^ PIECE_COL_KEYS[x + PIECE_OFFSET] ^ PIECE_ROW_KEYS[y + PIECE_OFFSET];
+	}
+
+}